@@ -0,0 +1,51 @@
+package com.vilaagro.api.benchmark;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
+import com.vilaagro.api.service.JwtService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+/**
+ * Utilitários compartilhados pelos benchmarks: montam os serviços sem subir o contexto Spring
+ */
+final class BenchmarkSupport {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Cria um JwtService com a mesma configuração do application.properties
+     */
+    static JwtService newJwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", 10000L);
+        ReflectionTestUtils.setField(jwtService, "activeKeyId", "primary");
+        ReflectionTestUtils.setField(jwtService, "previousSecrets", "");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    static User newUser(String email) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .name("Comerciante Benchmark")
+                .email(email)
+                .password("$2a$12$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmark")
+                .documentsStatus(AccountStatus.ACTIVE)
+                .type(UserType.PRODUTOR_RURAL)
+                .build();
+    }
+
+    static CustomUserPrincipal newPrincipal(String email) {
+        return new CustomUserPrincipal(newUser(email));
+    }
+}
@@ -0,0 +1,70 @@
+package com.vilaagro.api.benchmark;
+
+import com.vilaagro.api.security.JwtAuthFilter;
+import com.vilaagro.api.service.CustomUserDetailsService;
+import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
+import com.vilaagro.api.service.JwtService;
+import jakarta.servlet.http.Cookie;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobrecarga do JwtAuthFilter por requisição autenticada, com o UserDetailsService simulado
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private Cookie accessTokenCookie;
+
+    @Setup
+    public void setup() {
+        JwtService jwtService = BenchmarkSupport.newJwtService();
+        CustomUserPrincipal principal = BenchmarkSupport.newPrincipal("bench@vilaagro.com");
+
+        CustomUserDetailsService userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        Mockito.when(userDetailsService.loadUserByUsername(principal.getUsername())).thenReturn(principal);
+        Mockito.when(userDetailsService.loadCachedPrincipal(principal.getUsername(), principal.getUserId()))
+                .thenReturn(principal);
+
+        filter = new JwtAuthFilter(jwtService, userDetailsService);
+        accessTokenCookie = new Cookie("accessToken",
+                jwtService.generateAccessToken(principal, principal.getUserId(), principal.getUserType()));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setServletPath("/api/users");
+        request.setCookies(accessTokenCookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            // Limpa o contexto a cada chamada: com ele preenchido o filtro pularia a autenticação
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
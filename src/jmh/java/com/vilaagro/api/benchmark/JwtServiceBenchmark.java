@@ -0,0 +1,70 @@
+package com.vilaagro.api.benchmark;
+
+import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
+import com.vilaagro.api.service.JwtService;
+import com.vilaagro.api.service.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de emissão e validação de tokens no JwtService
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private CustomUserPrincipal principal;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        jwtService = BenchmarkSupport.newJwtService();
+        principal = BenchmarkSupport.newPrincipal("bench@vilaagro.com");
+        accessToken = jwtService.generateAccessToken(principal, principal.getUserId(), principal.getUserType());
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(principal, principal.getUserId(), principal.getUserType());
+    }
+
+    /**
+     * Parse completo com verificação HMAC (equivalente a extractAllClaims)
+     */
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    /**
+     * Caminho antigo do filtro: cada claim reprocessa o token
+     */
+    @Benchmark
+    public boolean isTokenValidUncached() {
+        return jwtService.isAccessToken(accessToken) && jwtService.isTokenValid(accessToken, principal);
+    }
+
+    /**
+     * Caminho atual do filtro: verificação única servida pelo cache de tokens verificados
+     */
+    @Benchmark
+    public boolean isTokenValidVerified() {
+        VerifiedToken token = jwtService.verify(accessToken);
+        return token.isAccessToken() && jwtService.isTokenValid(token, principal);
+    }
+}
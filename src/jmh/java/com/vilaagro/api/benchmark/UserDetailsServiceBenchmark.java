@@ -0,0 +1,87 @@
+package com.vilaagro.api.benchmark;
+
+import com.vilaagro.api.ApiApplication;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.repository.UserRepository;
+import com.vilaagro.api.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca do usuário autenticado no H2 em memória, com e sem o cache de principals
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDetailsServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+    private String email;
+    private String userId;
+
+    @Setup
+    public void setup() throws IOException {
+        Path uploads = Files.createTempDirectory("benchmark-uploads");
+        SpringApplication application = new SpringApplication(ApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // Argumentos de linha de comando têm precedência sobre o application.properties:
+        // banco em memória e uploads temporários (nunca os dados de desenvolvimento) e sem log de SQL distorcendo a medição
+        context = application.run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--file.upload-dir=" + uploads,
+                "--blob-store.dir=" + uploads.resolve("blobs"),
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.springframework.web=WARN"
+        );
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User user = BenchmarkSupport.newUser("bench-" + UUID.randomUUID() + "@vilaagro.com");
+        user.setId(null);
+        User saved = userRepository.save(user);
+
+        email = saved.getEmail();
+        userId = saved.getId().toString();
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(email);
+    }
+
+    @Benchmark
+    public UserDetails loadCachedPrincipal() {
+        return userDetailsService.loadCachedPrincipal(email, userId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.vilaagro.api.config;
+
+import com.vilaagro.api.service.FileStorageService;
+import com.vilaagro.api.service.StoredFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move para o disco os anexos de justificativas que ainda estão na coluna legada "annex"
+ * Cada anexo é copiado em streaming, um por vez, e a coluna é limpa em seguida
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnnexMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorageService fileStorageService;
+
+    @Override
+    public void run(String... args) {
+        List<Map<String, Object>> pending;
+        try {
+            pending = jdbcTemplate.queryForList(
+                    "SELECT j.id, a.user_id FROM justification_for_absence j " +
+                    "JOIN absence a ON a.id = j.absence_id " +
+                    "WHERE j.annex IS NOT NULL AND j.annex_path IS NULL");
+        } catch (DataAccessException e) {
+            // Bancos criados após a mudança não possuem a coluna legada
+            log.debug("Coluna legada de anexos não encontrada, nada a migrar");
+            return;
+        }
+
+        for (Map<String, Object> row : pending) {
+            Object id = row.get("id");
+            Object userId = row.get("user_id");
+
+            jdbcTemplate.query("SELECT annex FROM justification_for_absence WHERE id = ?", rs -> {
+                try (InputStream content = rs.getBinaryStream("annex")) {
+                    // O formato original não era guardado; os downloads antigos eram servidos como PDF
+                    StoredFile stored = fileStorageService.storeStream(
+                            content, "annexes/" + userId, "anexo.pdf", "application/pdf");
+
+                    jdbcTemplate.update(
+                            "UPDATE justification_for_absence SET annex_path = ?, annex_content_type = ?, " +
+                            "annex_size = ?, annex_checksum = ?, annex_original_filename = ?, annex = NULL WHERE id = ?",
+                            stored.getPath(), stored.getContentType(), stored.getSize(),
+                            stored.getChecksum(), stored.getOriginalFilename(), id);
+                } catch (IOException e) {
+                    log.warn("Erro ao migrar anexo da justificativa {}: {}", id, e.getMessage());
+                }
+            }, id);
+        }
+
+        if (!pending.isEmpty()) {
+            log.info("{} anexo(s) de justificativa migrado(s) para o disco", pending.size());
+        }
+    }
+}
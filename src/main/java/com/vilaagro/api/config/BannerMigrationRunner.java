@@ -0,0 +1,70 @@
+package com.vilaagro.api.config;
+
+import com.vilaagro.api.model.Artist;
+import com.vilaagro.api.repository.ArtistRepository;
+import com.vilaagro.api.service.ArtistService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Move para o BlobStore os banners que ainda estão na coluna legada "banner" de artist
+ * Um banner por vez; a coluna é limpa em seguida. Roda antes do ImageSeeder.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+@Slf4j
+public class BannerMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArtistRepository artistRepository;
+    private final ArtistService artistService;
+
+    @Override
+    public void run(String... args) {
+        List<UUID> pending;
+        try {
+            pending = jdbcTemplate.queryForList("SELECT id FROM artist WHERE banner IS NOT NULL", UUID.class);
+        } catch (DataAccessException e) {
+            // Bancos criados após a mudança não possuem a coluna legada
+            log.debug("Coluna legada de banners não encontrada, nada a migrar");
+            return;
+        }
+
+        int migrated = 0;
+        for (UUID id : pending) {
+            try {
+                byte[] content = jdbcTemplate.queryForObject("SELECT banner FROM artist WHERE id = ?", byte[].class, id);
+                Artist artist = artistRepository.findById(id).orElse(null);
+                if (artist != null && content != null && content.length > 0) {
+                    // O banner antigo não tinha referência no BlobStore: não há o que liberar
+                    artist.setHasBanner(false);
+                    artist.setBannerChecksum(null);
+                    try {
+                        artistService.replaceBanner(artist, content);
+                        migrated++;
+                    } catch (IllegalArgumentException e) {
+                        // Não é JPEG, PNG nem GIF: não pode ser servido como banner público
+                        log.warn("Banner do artista {} descartado: {}", id, e.getMessage());
+                        artistRepository.save(artist);
+                    }
+                }
+                jdbcTemplate.update("UPDATE artist SET banner = NULL WHERE id = ?", id);
+            } catch (DataAccessException e) {
+                log.warn("Erro ao migrar banner do artista {}: {}", id, e.getMessage());
+            }
+        }
+
+        if (migrated > 0) {
+            log.info("{} banner(s) de artista migrado(s) para o BlobStore", migrated);
+        }
+    }
+}
@@ -2,81 +2,65 @@ package com.vilaagro.api.config;
 
 import com.vilaagro.api.model.Artist;
 import com.vilaagro.api.repository.ArtistRepository;
+import com.vilaagro.api.service.ArtistService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.util.Map;
 
 @Component
+@Order(2)
 @RequiredArgsConstructor
 @Slf4j
 public class ImageSeeder implements CommandLineRunner {
 
+    /**
+     * Artistas de exemplo e a imagem padrão de cada um
+     */
+    private static final Map<String, String> SEED_BANNERS = Map.of(
+            "Banda Sertanejo Raiz", "static/images/sertanejo-banner.jpg",
+            "Grupo de Forró", "static/images/forro-banner.jpg",
+            "DJ Eletrônico", "static/images/eletronico-banner.jpg"
+    );
+
     private final ArtistRepository artistRepository;
+    private final ArtistService artistService;
 
     @Override
     public void run(String... args) throws Exception {
         log.info("🖼️ Carregando imagens dos artistas...");
-        
-        try {
-            // Banda Sertanejo Raiz
-            artistRepository.findAll().stream()
-                .filter(artist -> artist.getName().equals("Banda Sertanejo Raiz") && artist.getBanner() == null)
-                .findFirst()
-                .ifPresent(artist -> {
-                    try {
-                        byte[] image = loadImage("static/images/sertanejo-banner.jpg");
-                        artist.setBanner(image);
-                        artistRepository.save(artist);
-                        log.info("✅ Banner carregado: Banda Sertanejo Raiz");
-                    } catch (IOException e) {
-                        log.warn("⚠️ Erro ao carregar imagem para Banda Sertanejo Raiz: {}", e.getMessage());
-                    }
-                });
-
-            // Grupo de Forró
-            artistRepository.findAll().stream()
-                .filter(artist -> artist.getName().equals("Grupo de Forró") && artist.getBanner() == null)
-                .findFirst()
-                .ifPresent(artist -> {
-                    try {
-                        byte[] image = loadImage("static/images/forro-banner.jpg");
-                        artist.setBanner(image);
-                        artistRepository.save(artist);
-                        log.info("✅ Banner carregado: Grupo de Forró");
-                    } catch (IOException e) {
-                        log.warn("⚠️ Erro ao carregar imagem para Grupo de Forró: {}", e.getMessage());
-                    }
-                });
 
-            // DJ Eletrônico
-            artistRepository.findAll().stream()
-                .filter(artist -> artist.getName().equals("DJ Eletrônico") && artist.getBanner() == null)
-                .findFirst()
-                .ifPresent(artist -> {
-                    try {
-                        byte[] image = loadImage("static/images/eletronico-banner.jpg");
-                        artist.setBanner(image);
-                        artistRepository.save(artist);
-                        log.info("✅ Banner carregado: DJ Eletrônico");
-                    } catch (IOException e) {
-                        log.warn("⚠️ Erro ao carregar imagem para DJ Eletrônico: {}", e.getMessage());
-                    }
-                });
+        try {
+            // Uma consulta só; a entidade Artist não carrega os bytes do banner
+            for (Artist artist : artistRepository.findByNameIn(SEED_BANNERS.keySet())) {
+                if (Boolean.TRUE.equals(artist.getHasBanner())) {
+                    continue;
+                }
+                try {
+                    byte[] image = loadImage(SEED_BANNERS.get(artist.getName()));
+                    artistService.replaceBanner(artist, image);
+                    log.info("✅ Banner carregado: {}", artist.getName());
+                } catch (IOException e) {
+                    log.warn("⚠️ Erro ao carregar imagem para {}: {}", artist.getName(), e.getMessage());
+                }
+            }
 
             log.info("🎉 Imagens carregadas com sucesso!");
-            
+
         } catch (Exception e) {
             log.error("❌ Erro ao carregar imagens: {}", e.getMessage());
         }
     }
 
     private byte[] loadImage(String path) throws IOException {
-        ClassPathResource resource = new ClassPathResource(path);
-        return resource.getInputStream().readAllBytes();
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        }
     }
 }
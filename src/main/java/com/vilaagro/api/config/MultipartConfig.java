@@ -0,0 +1,38 @@
+package com.vilaagro.api.config;
+
+import com.vilaagro.api.service.FileStorageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Grava os temporários do multipart dentro do volume de uploads (uploads/.staging/multipart)
+ * Assim o envio é movido para o staging por renomeação, em vez de ser copiado de /tmp
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            MultipartProperties properties,
+            @Value("${file.upload-dir:uploads}") String uploadDir
+    ) throws IOException {
+        Path location = Paths.get(uploadDir).toAbsolutePath().normalize()
+                .resolve(FileStorageService.STAGING_DIR)
+                .resolve("multipart");
+        Files.createDirectories(location);
+
+        return new MultipartConfigElement(
+                location.toString(),
+                properties.getMaxFileSize().toBytes(),
+                properties.getMaxRequestSize().toBytes(),
+                (int) properties.getFileSizeThreshold().toBytes());
+    }
+}
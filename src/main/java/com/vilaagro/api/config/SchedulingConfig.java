@@ -0,0 +1,15 @@
+package com.vilaagro.api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita os jobs @Scheduled (varredura de frequência, coleta de uploads, reconciliação do contador,
+ * limpeza de refresh tokens); scheduling.enabled=false os desliga, como no perfil de testes
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
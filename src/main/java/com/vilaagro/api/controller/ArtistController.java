@@ -3,10 +3,14 @@ package com.vilaagro.api.controller;
 
 import com.vilaagro.api.dto.ArtistCreateDTO;
 import com.vilaagro.api.dto.ArtistResponseDTO;
+import com.vilaagro.api.model.ImageVariant;
 import com.vilaagro.api.service.ArtistService;
+import com.vilaagro.api.service.FileDownload;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/artists")
@@ -24,6 +29,9 @@ public class ArtistController {
 
     private final ArtistService artistService;
 
+    // A URL do banner não muda quando ele é trocado: cache curto, revalidado pelo ETag
+    private final CacheControl bannerCacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     /**
      * Cria um novo Artista (Admin)
      * Aceita multipart/form-data (Campos de texto + 1 arquivo)
@@ -88,14 +96,17 @@ public class ArtistController {
 
     /**
      * Endpoint público para visualizar o banner de um artista
+     * size: thumb, medium, full ou original (padrão). Responde 304 quando o cliente já tem a versão atual.
      */
     @GetMapping("/{id}/banner")
-    public ResponseEntity<byte[]> getArtistBanner(@PathVariable UUID id) {
-        byte[] bannerData = artistService.getArtistBanner(id);
+    public ResponseEntity<Resource> getArtistBanner(
+            @PathVariable UUID id,
+            @RequestParam(value = "size", required = false) String size
+    ) {
+        FileDownload banner = artistService.getArtistBanner(id, ImageVariant.fromParam(size));
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"banner.jpg\"")
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(bannerData);
+        return BinaryResponses.of(banner,
+                ContentDisposition.inline().filename(banner.getFilename()).build(),
+                bannerCacheControl);
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,47 @@
 // VilaAgroApi/src/main/java/com/vilaagro/api/controller/AttendanceController.java
 package com.vilaagro.api.controller;
 
+import com.vilaagro.api.dto.AbsenceFeedFilter;
+import com.vilaagro.api.dto.AbsenceFeedItemDTO;
 import com.vilaagro.api.dto.AbsenceNotificationDTO;
 import com.vilaagro.api.dto.AbsenceRegisterDTO;
 import com.vilaagro.api.dto.AbsenceResponseDTO;
 import com.vilaagro.api.dto.AttendanceSummaryDTO;
+import com.vilaagro.api.dto.CursorPageDTO;
 import com.vilaagro.api.dto.JustificationCreateDTO;
 import com.vilaagro.api.dto.JustificationResponseDTO;
 import com.vilaagro.api.dto.JustificationReviewDTO;
+import com.vilaagro.api.dto.PendingJustificationDTO;
+import com.vilaagro.api.model.AbsenceType;
 import com.vilaagro.api.model.User;
+import com.vilaagro.api.service.AttendanceComplianceService;
+import com.vilaagro.api.service.AttendanceExportService;
 import com.vilaagro.api.service.AttendanceService;
+import com.vilaagro.api.service.ComplianceSweepService;
 import com.vilaagro.api.service.CustomUserDetailsService;
+import com.vilaagro.api.service.FileDownload;
 import com.vilaagro.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.http.HttpHeaders;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -37,6 +54,9 @@ import java.util.UUID;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceComplianceService complianceService;
+    private final ComplianceSweepService complianceSweepService;
+    private final AttendanceExportService attendanceExportService;
     private final UserService userService;
 
     /**
@@ -52,25 +72,77 @@ public class AttendanceController {
     }
 
     /**
-     * Admin: Lista todas as faltas de todos os usuários (RF-D.6.1)
+     * Admin: Lista as faltas de todos os usuários, paginadas por cursor e filtráveis (RF-D.6.1)
      */
     @GetMapping("/absences")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<AbsenceResponseDTO>> getAllAbsences() {
-        List<AbsenceResponseDTO> absences = attendanceService.getAllAbsences();
-        return ResponseEntity.ok(absences);
+    public ResponseEntity<CursorPageDTO<AbsenceFeedItemDTO>> getAllAbsences(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) AbsenceType type,
+            @RequestParam(required = false) Boolean accepted,
+            @RequestParam(required = false) AbsenceFeedFilter.JustificationState justification
+    ) {
+        AbsenceFeedFilter filter = AbsenceFeedFilter.builder()
+                .from(from)
+                .to(to)
+                .userId(userId)
+                .type(type)
+                .isAccepted(accepted)
+                .justification(justification)
+                .build();
+
+        CursorPageDTO<AbsenceFeedItemDTO> page = attendanceService.getAbsenceFeed(filter, cursor, limit);
+        return ResponseEntity.ok(page);
     }
 
     /**
-     * Admin: Lista justificativas pendentes (RF-D.6.2)
+     * Admin: Exporta a frequência de um período em CSV ou XLSX, em streaming (prestação de contas mensal)
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") AttendanceExportService.ExportFormat format
+    ) {
+        StreamingResponseBody body = attendanceExportService.export(from, to, format);
+        String filename = "frequencia_" + from + "_" + to + "." + format.getExtension();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Admin: Lista justificativas pendentes, paginadas por cursor (RF-D.6.2)
      */
     @GetMapping("/justifications/pending")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<AbsenceResponseDTO>> getPendingJustifications() {
-        List<AbsenceResponseDTO> pending = attendanceService.getPendingJustifications();
+    public ResponseEntity<CursorPageDTO<PendingJustificationDTO>> getPendingJustifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        CursorPageDTO<PendingJustificationDTO> pending = attendanceService.getPendingJustifications(cursor, limit);
         return ResponseEntity.ok(pending);
     }
 
+    /**
+     * Admin: Total de justificativas pendentes (RF-D.6.2)
+     */
+    @GetMapping("/justifications/pending/count")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Long>> countPendingJustifications() {
+        return ResponseEntity.ok(Map.of("count", attendanceService.countPendingJustifications()));
+    }
+
     /**
      * Admin: Revisa (aprova/reprova) uma justificativa (RF-D.6.2)
      */
@@ -116,19 +188,21 @@ public class AttendanceController {
 
     /**
      * Admin/Comerciante: Baixa o anexo de uma justificativa
+     * O arquivo é transmitido do disco (com suporte a Range), sem carregar o conteúdo na memória
      */
     @GetMapping("/justifications/{id}/annex")
-    public ResponseEntity<byte[]> getJustificationAnnex(
+    public ResponseEntity<Resource> getJustificationAnnex(
             @PathVariable UUID id,
             @AuthenticationPrincipal CustomUserDetailsService.CustomUserPrincipal currentUser
     ) {
-        byte[] annexData = attendanceService.getJustificationAnnex(id, currentUser.getUser());
+        FileDownload annex = attendanceService.getJustificationAnnex(id, currentUser.getUser());
 
-        // Retorna os bytes do arquivo para download
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"anexo.pdf\"") // Assume PDF, já que o DB não guarda o nome
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(annexData);
+        String filename = annex.getFilename() != null && !annex.getFilename().isBlank() ? annex.getFilename() : "anexo";
+
+        // Documento privado: nunca em caches compartilhados, mas revalidável pelo ETag (304)
+        return BinaryResponses.of(annex,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build(),
+                CacheControl.noCache().cachePrivate());
     }
 
     /**
@@ -152,6 +226,26 @@ public class AttendanceController {
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Admin: Recalcula o agregado de frequência de todos os usuários (backfill)
+     */
+    @PostMapping("/compliance/recompute")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> recomputeCompliance() {
+        int processed = complianceService.recomputeAll();
+        return ResponseEntity.ok(Map.of("processedUsers", processed));
+    }
+
+    /**
+     * Admin: Executa a varredura de conformidade de frequência imediatamente
+     */
+    @PostMapping("/compliance/sweep")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ComplianceSweepService.SweepResult> runComplianceSweep() {
+        ComplianceSweepService.SweepResult result = complianceSweepService.sweep();
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Comerciante: Notifica ausência futura com motivo e anexo opcional
      */
@@ -6,6 +6,8 @@ import com.vilaagro.api.dto.PasswordUpdateDTO;
 import com.vilaagro.api.dto.ProfileUpdateDTO;
 import com.vilaagro.api.dto.UserCreateDTO;
 import com.vilaagro.api.dto.UserResponseDTO;
+import com.vilaagro.api.exception.ServiceUnavailableException;
+import com.vilaagro.api.exception.TooManyRequestsException;
 import com.vilaagro.api.service.AuthService;
 import com.vilaagro.api.service.CustomUserDetailsService;
 import jakarta.servlet.http.HttpServletResponse;
@@ -52,6 +54,10 @@ public class AuthController {
             log.info("Usuário registrado com sucesso: {}", createDTO.getEmail());
             return ResponseEntity.status(HttpStatus.CREATED).body(authResponse);
 
+        } catch (ServiceUnavailableException e) {
+            // Pool de hash saturado: responde 503 com Retry-After pelo GlobalExceptionHandler
+            throw e;
+
         } catch (Exception e) {
             log.error("Erro durante registro: {}", e.getMessage());
 
@@ -87,6 +93,14 @@ public class AuthController {
             log.info("Login realizado com sucesso para: {}", loginRequest.getEmail());
             return ResponseEntity.ok(authResponse);
 
+        } catch (TooManyRequestsException e) {
+            // Limite de tentativas excedido: responde 429 com Retry-After pelo GlobalExceptionHandler
+            throw e;
+
+        } catch (ServiceUnavailableException e) {
+            // Pool de hash saturado: responde 503 com Retry-After pelo GlobalExceptionHandler
+            throw e;
+
         } catch (Exception e) {
             log.error("Erro durante login: {}", e.getMessage());
 
@@ -241,6 +255,10 @@ public class AuthController {
             log.info("Senha atualizada com sucesso");
             return ResponseEntity.ok(response);
 
+        } catch (ServiceUnavailableException e) {
+            // Pool de hash saturado: responde 503 com Retry-After pelo GlobalExceptionHandler
+            throw e;
+
         } catch (Exception e) {
             log.error("Erro ao atualizar senha: {}", e.getMessage());
 
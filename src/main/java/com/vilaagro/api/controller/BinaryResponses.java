@@ -0,0 +1,52 @@
+package com.vilaagro.api.controller;
+
+import com.vilaagro.api.service.FileDownload;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Monta as respostas de download de arquivos com os cabeçalhos de cache HTTP
+ * Com ETag/Last-Modified presentes, o Spring responde 304 sozinho às requisições condicionais
+ * (If-None-Match / If-Modified-Since) e atende Range com 206 para corpos do tipo Resource,
+ * sempre transmitindo o conteúdo do disco sem carregá-lo na memória.
+ */
+final class BinaryResponses {
+
+    private BinaryResponses() {
+    }
+
+    static ResponseEntity<Resource> of(FileDownload file, ContentDisposition disposition, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(mediaTypeOf(file.getContentType()))
+                .cacheControl(cacheControl);
+
+        if (file.getChecksum() != null) {
+            builder.eTag("\"" + file.getChecksum() + "\"");
+        }
+        if (file.getLastModified() != null) {
+            builder.lastModified(file.getLastModified());
+        }
+        return builder.body(file.getResource());
+    }
+
+    /**
+     * Tipo gravado no banco; valores ausentes ou malformados (registros antigos) viram application/octet-stream
+     */
+    private static MediaType mediaTypeOf(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.vilaagro.api.controller;
 
+import com.vilaagro.api.dto.CursorPageDTO;
 import com.vilaagro.api.dto.DocumentResponseDTO;
+import com.vilaagro.api.dto.DocumentReviewBatchDTO;
+import com.vilaagro.api.dto.DocumentReviewResultDTO;
+import com.vilaagro.api.dto.ReviewQueueItemDTO;
 import com.vilaagro.api.model.DocumentType;
 import com.vilaagro.api.service.CustomUserDetailsService;
+import com.vilaagro.api.service.DocumentDownloadSigner;
+import com.vilaagro.api.service.DocumentReviewService;
 import com.vilaagro.api.service.DocumentService;
+import com.vilaagro.api.service.FileDownload;
+import com.vilaagro.api.service.UploadGarbageCollector;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,20 +37,26 @@ import java.util.UUID;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentReviewService documentReviewService;
+    private final DocumentDownloadSigner downloadSigner;
+    private final UploadGarbageCollector uploadGarbageCollector;
 
     /**
-     * Upload de documento do usuário autenticado
+     * Upload de documento do usuário autenticado (PDF, JPEG ou PNG)
+     * sha256 (opcional): checksum calculado pelo cliente, conferido com o arquivo recebido
      */
     @PostMapping("/upload")
     public ResponseEntity<DocumentResponseDTO> uploadDocument(
             @RequestParam("file") MultipartFile file,
             @RequestParam("type") DocumentType type,
+            @RequestParam(value = "sha256", required = false) String sha256,
             @AuthenticationPrincipal CustomUserDetailsService.CustomUserPrincipal currentUser
     ) {
         DocumentResponseDTO document = documentService.uploadDocument(
                 currentUser.getUser().getId(), 
                 type, 
-                file
+                file,
+                sha256
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(document);
     }
@@ -52,6 +72,68 @@ public class DocumentController {
         return ResponseEntity.ok(documents);
     }
 
+    /**
+     * Admin/Dono: Baixa o conteúdo de um documento
+     * O arquivo é transmitido do disco (com suporte a Range e ETag), sem carregar o conteúdo na memória
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<Resource> getDocumentContent(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal CustomUserDetailsService.CustomUserPrincipal currentUser
+    ) {
+        FileDownload document = documentService.getDocumentContent(id, currentUser.getUser());
+
+        String filename = document.getFilename() != null && !document.getFilename().isBlank() ? document.getFilename() : "documento";
+
+        // Exibido no navegador para a revisão; privado, mas revalidável pelo ETag (304)
+        return BinaryResponses.of(document,
+                ContentDisposition.inline().filename(filename, StandardCharsets.UTF_8).build(),
+                CacheControl.noCache().cachePrivate());
+    }
+
+    /**
+     * Baixa o conteúdo de um documento por link assinado (gerado na fila de revisão), sem autenticação
+     * O link é único por expiração, então o navegador pode manter a resposta em cache privado até expirar
+     */
+    @GetMapping("/{id}/content/signed")
+    public ResponseEntity<Resource> getSignedDocumentContent(
+            @PathVariable UUID id,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature
+    ) {
+        FileDownload document = documentService.getSignedDocumentContent(id, expires, signature);
+
+        String filename = document.getFilename() != null && !document.getFilename().isBlank() ? document.getFilename() : "documento";
+
+        return BinaryResponses.of(document,
+                ContentDisposition.inline().filename(filename, StandardCharsets.UTF_8).build(),
+                CacheControl.maxAge(downloadSigner.getTtl()).cachePrivate());
+    }
+
+    /**
+     * Admin: Próximos comerciantes pendentes com os documentos e links de download assinados
+     */
+    @GetMapping("/review/queue")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<CursorPageDTO<ReviewQueueItemDTO>> getReviewQueue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(documentReviewService.getReviewQueue(cursor, limit));
+    }
+
+    /**
+     * Admin: Aplica um lote de decisões de revisão (aprovação/reprovação de cadastros)
+     */
+    @PostMapping("/review/decisions")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<DocumentReviewResultDTO> applyReviewDecisions(
+            @Valid @RequestBody DocumentReviewBatchDTO batch,
+            @AuthenticationPrincipal CustomUserDetailsService.CustomUserPrincipal currentUser
+    ) {
+        return ResponseEntity.ok(documentReviewService.applyDecisions(batch, currentUser.getUser()));
+    }
+
     /**
      * Deleta documento do usuário autenticado
      */
@@ -63,4 +145,16 @@ public class DocumentController {
         documentService.deleteDocument(id, currentUser.getUser().getId());
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Admin: Executa a coleta de arquivos órfãos do volume de uploads imediatamente
+     * dryRun=true apenas relata os órfãos, sem mover nem apagar
+     */
+    @PostMapping("/storage/gc")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UploadGarbageCollector.GcReport> collectOrphanFiles(
+            @RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun
+    ) {
+        return ResponseEntity.ok(uploadGarbageCollector.collect(dryRun));
+    }
 }
@@ -1,17 +1,21 @@
 package com.vilaagro.api.controller;
 
-import com.vilaagro.api.dto.AttractionResponseDTO;
 import com.vilaagro.api.dto.FairCreateDTO;
 import com.vilaagro.api.dto.FairResponseDTO;
+import com.vilaagro.api.service.CustomUserDetailsService;
+import com.vilaagro.api.service.FairCheckInService;
 import com.vilaagro.api.service.FairService;
+import com.vilaagro.api.service.PublicResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -23,6 +27,8 @@ import java.util.UUID;
 public class FairController {
 
     private final FairService fairService;
+    private final FairCheckInService fairCheckInService;
+    private final PublicResponseCache publicResponseCache;
 
     /**
      * Admin: Cria uma nova feira
@@ -59,35 +65,65 @@ public class FairController {
 
     /**
      * Lista todas as feiras ou filtra por mês/ano - Público
+     * Servido do cache de respostas públicas, com ETag e Cache-Control
      */
     @GetMapping
-    public ResponseEntity<List<FairResponseDTO>> getFairs(
+    public ResponseEntity<byte[]> getFairs(
             @RequestParam(required = false) Integer month,
-            @RequestParam(required = false) Integer year
+            @RequestParam(required = false) Integer year,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         if (month != null && year != null) {
-            List<FairResponseDTO> fairs = fairService.getFairsByMonthAndYear(month, year);
-            return ResponseEntity.ok(fairs);
+            return publicResponseCache.respond("fairs:" + year + "-" + month, ifNoneMatch,
+                    () -> fairService.getFairsByMonthAndYear(month, year));
         }
-        List<FairResponseDTO> fairs = fairService.getAllFairs();
-        return ResponseEntity.ok(fairs);
+        return publicResponseCache.respond("fairs:all", ifNoneMatch, fairService::getAllFairs);
     }
 
     /**
      * Busca próxima feira agendada - Público
      */
     @GetMapping("/next")
-    public ResponseEntity<FairResponseDTO> getNextFair() {
-        FairResponseDTO fair = fairService.getNextFair();
-        return ResponseEntity.ok(fair);
+    public ResponseEntity<byte[]> getNextFair(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return publicResponseCache.respond("fairs:next", ifNoneMatch, fairService::getNextFair);
     }
 
     /**
      * Lista atrações de uma feira específica - Público
      */
     @GetMapping("/{id}/attractions")
-    public ResponseEntity<List<AttractionResponseDTO>> getFairAttractions(@PathVariable UUID id) {
-        List<AttractionResponseDTO> attractions = fairService.getAttractionsByFairId(id);
-        return ResponseEntity.ok(attractions);
+    public ResponseEntity<byte[]> getFairAttractions(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return publicResponseCache.respond("fairs:" + id + ":attractions", ifNoneMatch,
+                () -> fairService.getAttractionsByFairId(id));
+    }
+
+    /**
+     * Comerciante: Faz check-in da sua banca na feira do dia
+     * Responde 202 assim que o check-in entra na fila de gravação; repetir a chamada é seguro
+     */
+    @PostMapping("/{id}/check-in")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, String>> checkIn(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal CustomUserDetailsService.CustomUserPrincipal currentUser
+    ) {
+        FairCheckInService.CheckInResult result = fairCheckInService.checkIn(id, currentUser.getUser());
+        HttpStatus status = result == FairCheckInService.CheckInResult.ACCEPTED ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(Map.of("status", result.name()));
+    }
+
+    /**
+     * Admin: Encerra a feira e registra falta para quem não fez check-in
+     */
+    @PostMapping("/{id}/close")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> closeFair(@PathVariable UUID id) {
+        Map<String, Integer> summary = fairCheckInService.closeFair(id);
+        return ResponseEntity.ok(summary);
     }
 }
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.UUID;
 
 /**
- * Controller para notificações do usuário
+ * Controller para notificações administrativas
  */
 @RestController
 @RequestMapping("/api/notifications")
@@ -22,7 +22,7 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     /**
-     * Lista todas notificações - Público
+     * Lista todas notificações - Admin
      */
     @GetMapping
     public ResponseEntity<List<NotificationResponseDTO>> getAllNotifications() {
@@ -31,7 +31,7 @@ public class NotificationController {
     }
 
     /**
-     * Retorna contagem de notificações não lidas - Público
+     * Retorna contagem de notificações não lidas - Admin
      */
     @GetMapping("/unread-count")
     public ResponseEntity<Long> getUnreadCount() {
@@ -40,7 +40,7 @@ public class NotificationController {
     }
 
     /**
-     * Marca notificação como lida - Público
+     * Marca notificação como lida - Admin
      */
     @PutMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable UUID id) {
@@ -49,7 +49,7 @@ public class NotificationController {
     }
 
     /**
-     * Marca todas notificações como lidas - Público
+     * Marca todas notificações como lidas - Admin
      */
     @PutMapping("/read-all")
     public ResponseEntity<Void> markAllAsRead() {
@@ -0,0 +1,32 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AbsenceType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros opcionais do feed administrativo de faltas (campos nulos são ignorados)
+ */
+@Data
+@Builder
+public class AbsenceFeedFilter {
+    private LocalDate from;
+    private LocalDate to;
+    private UUID userId;
+    private AbsenceType type;
+    private Boolean isAccepted;
+    private JustificationState justification;
+
+    /**
+     * Situação da justificativa de uma falta
+     */
+    public enum JustificationState {
+        NONE,     // Sem justificativa
+        PENDING,  // Justificativa aguardando análise
+        APPROVED, // Justificativa aprovada
+        REJECTED  // Justificativa reprovada
+    }
+}
@@ -0,0 +1,44 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AbsenceType;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha do feed administrativo de faltas, montada direto na consulta (projeção)
+ * Não carrega entidades: apenas as colunas exibidas na tela do admin
+ */
+@Data
+public class AbsenceFeedItemDTO {
+    private UUID id;
+    private UUID userId;
+    private String userName;
+    private LocalDate date;
+    private AbsenceType type;
+    private Boolean isAccepted;
+    private UUID justificationId;
+    private Boolean justificationApproved; // null = pendente (ou sem justificativa)
+    private boolean hasAnnex;
+    private LocalDateTime createdAt;
+
+    /**
+     * Construtor usado pela expressão "SELECT new" do JPQL
+     */
+    public AbsenceFeedItemDTO(UUID id, UUID userId, String userName, LocalDate date, AbsenceType type,
+                              Boolean isAccepted, UUID justificationId, Boolean justificationApproved,
+                              String annexPath, LocalDateTime createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.userName = userName;
+        this.date = date;
+        this.type = type;
+        this.isAccepted = isAccepted;
+        this.justificationId = justificationId;
+        this.justificationApproved = justificationApproved;
+        this.hasAnnex = annexPath != null;
+        this.createdAt = createdAt;
+    }
+}
@@ -34,7 +34,10 @@ public class AbsenceResponseDTO {
                     .description(justification.getDescription())
                     .isApproved(justification.getIsApproved())
                     .approvedByAdminId(justification.getApprovedByAdminId())
-                    .hasAnnex(justification.getAnnex() != null && justification.getAnnex().length > 0)
+                    .hasAnnex(justification.hasAnnex())
+                    .annexSize(justification.getAnnexSize())
+                    .annexContentType(justification.getAnnexContentType())
+                    .annexFilename(justification.getAnnexOriginalFilename())
                     .createdAt(justification.getCreatedAt())
                     .build();
         }
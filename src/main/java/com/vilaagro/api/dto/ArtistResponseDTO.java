@@ -16,13 +16,19 @@ public class ArtistResponseDTO {
     private String bannerUrl;
 
     public static ArtistResponseDTO fromEntity(Artist artist) {
-        boolean hasBanner = artist.getBanner() != null && artist.getBanner().length > 0;
-        String bannerUrl = hasBanner ? "/api/artists/" + artist.getId() + "/banner" : null;
+        return of(artist.getId(), artist.getName(), artist.getGenre(), Boolean.TRUE.equals(artist.getHasBanner()));
+    }
+
+    /**
+     * Monta o DTO a partir de campos já projetados (sem carregar o banner)
+     */
+    public static ArtistResponseDTO of(UUID id, String name, String genre, boolean hasBanner) {
+        String bannerUrl = hasBanner ? "/api/artists/" + id + "/banner" : null;
 
         return ArtistResponseDTO.builder()
-                .id(artist.getId())
-                .name(artist.getName())
-                .genre(artist.getGenre())
+                .id(id)
+                .name(name)
+                .genre(genre)
                 .hasBanner(hasBanner)
                 .bannerUrl(bannerUrl)
                 .build();
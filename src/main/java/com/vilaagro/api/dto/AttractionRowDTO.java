@@ -0,0 +1,62 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.FairStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Linha da listagem de atrações montada direto na consulta (atração + feira + artista)
+ * Não carrega os bytes do banner, apenas se o artista possui um
+ */
+@Getter
+@AllArgsConstructor
+public class AttractionRowDTO {
+    private UUID id;
+    private LocalTime timeStart;
+    private LocalTime timeEnd;
+
+    private UUID fairId;
+    private LocalDate fairDate;
+    private String fairStartTime;
+    private String fairEndTime;
+    private Integer fairExpectedMerchants;
+    private String fairNotes;
+    private FairStatus fairStatus;
+    private LocalDateTime fairCreatedAt;
+    private LocalDateTime fairUpdatedAt;
+
+    private UUID artistId;
+    private String artistName;
+    private String artistGenre;
+    private Boolean artistHasBanner;
+
+    public AttractionResponseDTO toResponseDTO() {
+        FairResponseDTO fair = FairResponseDTO.builder()
+                .id(fairId)
+                .date(fairDate)
+                .startTime(fairStartTime)
+                .endTime(fairEndTime)
+                .expectedMerchants(fairExpectedMerchants)
+                .notes(fairNotes)
+                .status(fairStatus)
+                .createdAt(fairCreatedAt)
+                .updatedAt(fairUpdatedAt)
+                .build();
+
+        ArtistResponseDTO artist = ArtistResponseDTO.of(artistId, artistName, artistGenre,
+                Boolean.TRUE.equals(artistHasBanner));
+
+        return AttractionResponseDTO.builder()
+                .id(id)
+                .timeStart(timeStart)
+                .timeEnd(timeEnd)
+                .fair(fair)
+                .artist(artist)
+                .build();
+    }
+}
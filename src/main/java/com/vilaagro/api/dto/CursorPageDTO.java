@@ -0,0 +1,20 @@
+package com.vilaagro.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de resultados com paginação por cursor (keyset)
+ * nextCursor deve ser enviado de volta para obter a página seguinte; é nulo na última página
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -23,6 +23,8 @@ public class DocumentResponseDTO {
     private String originalFileName;
     private String fileExtension;
     private Long fileSize;
+    private String contentType;
+    private String checksum;
     private AccountStatus status;
     private LocalDateTime uploadedAt;
 
@@ -35,6 +37,8 @@ public class DocumentResponseDTO {
                 .originalFileName(document.getOriginalFileName())
                 .fileExtension(document.getFileExtension())
                 .fileSize(document.getFileSize())
+                .contentType(document.getContentType())
+                .checksum(document.getChecksum())
                 .status(document.getStatus())
                 .uploadedAt(document.getUploadedAt())
                 .build();
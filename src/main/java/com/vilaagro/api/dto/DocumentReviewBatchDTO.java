@@ -0,0 +1,18 @@
+package com.vilaagro.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Lote de decisões da revisão de cadastros, aplicado em uma única transação
+ */
+@Data
+public class DocumentReviewBatchDTO {
+
+    @NotEmpty(message = "Informe ao menos uma decisão")
+    @Valid
+    private List<DocumentReviewDecisionDTO> decisions;
+}
@@ -0,0 +1,26 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AccountStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Decisão sobre o cadastro de um comerciante (ACTIVE, APPROVED ou DISAPPROVED)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentReviewDecisionDTO {
+
+    @NotNull(message = "Usuário é obrigatório")
+    private UUID userId;
+
+    @NotNull(message = "Status é obrigatório")
+    private AccountStatus status;
+
+    private String reason; // (RN-D.2.4 - Motivo da reprovação)
+}
@@ -0,0 +1,24 @@
+package com.vilaagro.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado de um lote de decisões
+ * skippedUserIds: usuários inexistentes ou que já não estavam pendentes (revisados por outro administrador)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentReviewResultDTO {
+    private List<UUID> updatedUserIds;
+    private List<UUID> skippedUserIds;
+    private int updatedDocuments;
+    private int notifications;
+}
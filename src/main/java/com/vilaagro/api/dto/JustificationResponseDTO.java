@@ -15,4 +15,7 @@ public class JustificationResponseDTO {
     private UUID approvedByAdminId;
     private LocalDateTime createdAt;
     private boolean hasAnnex;
+    private Long annexSize;
+    private String annexContentType;
+    private String annexFilename;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AbsenceType;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Item da fila de justificativas pendentes, montado direto na consulta (projeção)
+ * Traz a falta e o comerciante junto, sem consultas extras por linha
+ */
+@Data
+public class PendingJustificationDTO {
+    private UUID justificationId;
+    private UUID absenceId;
+    private LocalDate absenceDate;
+    private AbsenceType absenceType;
+    private UUID userId;
+    private String userName;
+    private String description;
+    private boolean hasAnnex;
+    private String annexFilename;
+    private Long annexSize;
+    private LocalDateTime createdAt;
+
+    /**
+     * Construtor usado pela expressão "SELECT new" do JPQL
+     */
+    public PendingJustificationDTO(UUID justificationId, UUID absenceId, LocalDate absenceDate,
+                                   AbsenceType absenceType, UUID userId, String userName, String description,
+                                   String annexFilename, Long annexSize, LocalDateTime createdAt) {
+        this.justificationId = justificationId;
+        this.absenceId = absenceId;
+        this.absenceDate = absenceDate;
+        this.absenceType = absenceType;
+        this.userId = userId;
+        this.userName = userName;
+        this.description = description;
+        this.hasAnnex = annexSize != null && annexSize > 0;
+        this.annexFilename = annexFilename;
+        this.annexSize = annexSize;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Documento de um item da fila de revisão
+ * downloadUrl é um link assinado de curta duração (até downloadExpiresAt), que pode ser pré-carregado
+ * pelo navegador sem o cabeçalho de autenticação
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewQueueDocumentDTO {
+    private UUID id;
+    private DocumentType type;
+    private String originalFileName;
+    private String contentType;
+    private Long fileSize;
+    private String checksum;
+    private AccountStatus status;
+    private LocalDateTime uploadedAt;
+    private String downloadUrl;
+    private Instant downloadExpiresAt;
+}
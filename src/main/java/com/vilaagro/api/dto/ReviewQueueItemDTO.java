@@ -0,0 +1,28 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.UserType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Comerciante pendente na fila de revisão, com os metadados dos documentos enviados
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewQueueItemDTO {
+    private UUID userId;
+    private String name;
+    private String email;
+    private String cpf;
+    private UserType type;
+    private LocalDateTime createdAt;
+    private List<ReviewQueueDocumentDTO> documents;
+}
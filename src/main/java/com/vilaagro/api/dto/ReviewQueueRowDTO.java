@@ -0,0 +1,34 @@
+package com.vilaagro.api.dto;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.DocumentType;
+import com.vilaagro.api.model.UserType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha da fila de revisão de cadastros montada direto na consulta (usuário + um documento)
+ * Usuários sem documentos aparecem em uma linha com os campos do documento nulos
+ */
+@Getter
+@AllArgsConstructor
+public class ReviewQueueRowDTO {
+    private UUID userId;
+    private String userName;
+    private String userEmail;
+    private String userCpf;
+    private UserType userType;
+    private LocalDateTime userCreatedAt;
+
+    private UUID documentId;
+    private DocumentType documentType;
+    private String originalFileName;
+    private String contentType;
+    private Long fileSize;
+    private String checksum;
+    private AccountStatus documentStatus;
+    private LocalDateTime uploadedAt;
+}
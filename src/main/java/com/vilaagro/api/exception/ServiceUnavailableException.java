@@ -0,0 +1,17 @@
+package com.vilaagro.api.exception;
+
+import lombok.Getter;
+
+/**
+ * Exceção lançada quando um recurso interno está saturado e a requisição deve ser repetida depois
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.vilaagro.api.exception;
+
+import lombok.Getter;
+
+/**
+ * Exceção lançada quando o limite de tentativas de uma operação é excedido
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
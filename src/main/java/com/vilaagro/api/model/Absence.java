@@ -18,7 +18,10 @@ import java.util.UUID;
  * (RF-D.6.1)
  */
 @Entity
-@Table(name = "absence")
+@Table(name = "absence", indexes = {
+        @Index(name = "idx_absence_date_id", columnList = "date, id"),
+        @Index(name = "idx_absence_user_date", columnList = "user_id, date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,12 +31,26 @@ public class Artist {
     private String genre;
 
     /**
-     * Armazena os bytes do banner/imagem diretamente no banco,
-     * conforme db.sql "banner BYTEA"
+     * Metadados do banner; os bytes ficam no BlobStore (chave = bannerChecksum) e só são lidos sob demanda
      */
-    @Lob
-    @Column(columnDefinition = "BYTEA")
-    private byte[] banner;
+    @Builder.Default
+    @Column(name = "has_banner")
+    private Boolean hasBanner = false;
+
+    @Column(name = "banner_content_type", length = 100)
+    private String bannerContentType;
+
+    @Column(name = "banner_size")
+    private Long bannerSize;
+
+    @Column(name = "banner_width")
+    private Integer bannerWidth;
+
+    @Column(name = "banner_height")
+    private Integer bannerHeight;
+
+    @Column(name = "banner_checksum", length = 64)
+    private String bannerChecksum;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
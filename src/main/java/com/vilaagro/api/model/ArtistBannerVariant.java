@@ -0,0 +1,47 @@
+package com.vilaagro.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Versão redimensionada do banner de um artista
+ * Aponta para o conteúdo no BlobStore e guarda o checksum do original de que foi gerada
+ */
+@Entity
+@Table(name = "artist_banner_variant", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_artist_banner_variant", columnNames = {"artist_id", "variant"})
+}, indexes = {
+        @Index(name = "idx_artist_banner_variant_checksum", columnList = "checksum")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArtistBannerVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "artist_id", nullable = false)
+    private UUID artistId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ImageVariant variant;
+
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "source_checksum", nullable = false, length = 64)
+    private String sourceChecksum;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+}
@@ -0,0 +1,84 @@
+package com.vilaagro.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Agregado de frequência por comerciante, mantido a cada alteração de faltas/justificativas
+ * Permite responder o resumo de frequência com uma única leitura por chave primária
+ */
+@Entity
+@Table(name = "attendance_compliance")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceCompliance {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Ano civil a que se refere o contador anual
+     */
+    @Column(name = "reference_year", nullable = false)
+    private Integer referenceYear;
+
+    @Column(name = "total_absences", nullable = false)
+    @Builder.Default
+    private Long totalAbsences = 0L;
+
+    @Column(name = "justified_absences", nullable = false)
+    @Builder.Default
+    private Long justifiedAbsences = 0L;
+
+    @Column(name = "pending_justifications", nullable = false)
+    @Builder.Default
+    private Long pendingJustifications = 0L;
+
+    @Column(name = "unjustified_absences", nullable = false)
+    @Builder.Default
+    private Long unjustifiedAbsences = 0L;
+
+    /**
+     * Faltas não justificadas no ano de referência
+     */
+    @Column(name = "yearly_unjustified", nullable = false)
+    @Builder.Default
+    private Long yearlyUnjustified = 0L;
+
+    /**
+     * Sequência atual de faltas não aceitas, terminando na falta mais recente
+     */
+    @Column(name = "consecutive_absences", nullable = false)
+    @Builder.Default
+    private Long consecutiveAbsences = 0L;
+
+    @Column(name = "last_absence_date")
+    private LocalDate lastAbsenceDate;
+
+    /**
+     * Marcado pela varredura de conformidade quando o comerciante foi notificado como fora da regra
+     * Evita notificar de novo a cada execução enquanto a situação não mudar
+     */
+    @Column(name = "flagged")
+    @Builder.Default
+    private Boolean flagged = false;
+
+    @Column(name = "flagged_at")
+    private LocalDateTime flaggedAt;
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
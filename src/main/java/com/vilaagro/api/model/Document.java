@@ -43,6 +43,18 @@ public class Document {
     @Column
     private Long fileSize;
 
+    /**
+     * Tipo identificado pelos bytes do arquivo no envio
+     */
+    @Column(length = 100)
+    private String contentType;
+
+    /**
+     * SHA-256 do conteúdo, calculado no envio
+     */
+    @Column(length = 64)
+    private String checksum;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     @Builder.Default
@@ -0,0 +1,39 @@
+package com.vilaagro.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Presença de um comerciante (banca) no dia da feira
+ * Um registro por (feira, usuário); as faltas da feira são derivadas a partir destes registros
+ */
+@Entity
+@Table(name = "fair_check_ins", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_fair_check_ins_fair_user", columnNames = {"fair_id", "user_id"})
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FairCheckIn {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "fair_id", nullable = false)
+    private UUID fairId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /**
+     * Momento em que o check-in foi recebido (não o da gravação, que é assíncrona)
+     */
+    @Column(name = "checked_in_at", nullable = false)
+    private Instant checkedInAt;
+}
@@ -0,0 +1,38 @@
+package com.vilaagro.api.model;
+
+import java.util.Locale;
+
+/**
+ * Tamanhos derivados gerados a partir de uma imagem enviada (largura máxima em pixels)
+ */
+public enum ImageVariant {
+    THUMB(160),    // Cards e listas no celular
+    MEDIUM(640),   // Página do artista no celular / cards no desktop
+    FULL(1600);    // Destaque em tela cheia
+
+    private final int maxWidth;
+
+    ImageVariant(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Converte o parâmetro da requisição ("thumb", "medium", "full"); null ou "original" indicam o arquivo enviado
+     *
+     * @throws IllegalArgumentException para valores desconhecidos
+     */
+    public static ImageVariant fromParam(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("original")) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tamanho de imagem inválido: " + value + " (use thumb, medium, full ou original)");
+        }
+    }
+}
@@ -17,7 +17,9 @@ import java.util.UUID;
  * (RF-C.3.2)
  */
 @Entity
-@Table(name = "justification_for_absence")
+@Table(name = "justification_for_absence", indexes = {
+        @Index(name = "idx_justification_approved_created", columnList = "is_approved, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -36,12 +38,23 @@ public class JustificationForAbsence {
     private String description;
 
     /**
-     * Campo para armazenar anexo (foto/PDF)
-     * @Lob permite arquivos grandes (até limite do multipart: 10MB)
+     * Anexo (foto/PDF) gravado em disco pelo FileStorageService
+     * A linha guarda apenas os metadados, para que listagens nunca carreguem o conteúdo
      */
-    @Lob
-    @Column(name = "annex", columnDefinition = "BYTEA")
-    private byte[] annex;
+    @Column(name = "annex_path", length = 500)
+    private String annexPath;
+
+    @Column(name = "annex_content_type", length = 100)
+    private String annexContentType;
+
+    @Column(name = "annex_size")
+    private Long annexSize;
+
+    @Column(name = "annex_checksum", length = 64)
+    private String annexChecksum;
+
+    @Column(name = "annex_original_filename", length = 255)
+    private String annexOriginalFilename;
 
     @Column(name = "is_approved")
     private Boolean isApproved;
@@ -56,4 +69,11 @@ public class JustificationForAbsence {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * Indica se a justificativa possui anexo, sem acessar o arquivo
+     */
+    public boolean hasAnnex() {
+        return annexPath != null && annexSize != null && annexSize > 0;
+    }
 }
\ No newline at end of file
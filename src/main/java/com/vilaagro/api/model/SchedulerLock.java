@@ -0,0 +1,33 @@
+package com.vilaagro.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Trava de agendamento compartilhada entre as instâncias da aplicação
+ * Apenas o nó que detém a trava (lockedUntil no futuro) executa o job correspondente
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private Instant lockedUntil;
+
+    @Column(name = "locked_at", nullable = false)
+    private Instant lockedAt;
+
+    @Column(name = "locked_by", nullable = false, length = 255)
+    private String lockedBy;
+}
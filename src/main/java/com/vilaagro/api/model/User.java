@@ -15,9 +15,11 @@ import java.util.UUID;
  * Entidade que representa um usuário no sistema VilaAgro
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_status_type", columnList = "documents_status, type")
+})
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -0,0 +1,20 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.dto.AbsenceFeedFilter;
+import com.vilaagro.api.dto.AbsenceFeedItemDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consulta do feed administrativo de faltas, com filtros dinâmicos e paginação por (data, id)
+ */
+public interface AbsenceFeedRepository {
+
+    /**
+     * Busca até {@code limit} faltas em ordem decrescente de (data, id), começando após o cursor
+     * (cursorDate/cursorId nulos = primeira página)
+     */
+    List<AbsenceFeedItemDTO> findFeedPage(AbsenceFeedFilter filter, LocalDate cursorDate, UUID cursorId, int limit);
+}
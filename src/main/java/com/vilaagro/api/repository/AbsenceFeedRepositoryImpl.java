@@ -0,0 +1,81 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.dto.AbsenceFeedFilter;
+import com.vilaagro.api.dto.AbsenceFeedItemDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Implementação do feed de faltas: monta o JPQL apenas com os filtros informados
+ * e usa a condição de keyset em vez de OFFSET, para que páginas profundas custem o mesmo que a primeira
+ */
+public class AbsenceFeedRepositoryImpl implements AbsenceFeedRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AbsenceFeedItemDTO> findFeedPage(AbsenceFeedFilter filter, LocalDate cursorDate, UUID cursorId, int limit) {
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.vilaagro.api.dto.AbsenceFeedItemDTO(
+                    a.id, u.id, u.name, a.date, a.type, a.isAccepted,
+                    j.id, j.isApproved, j.annexPath, a.createdAt)
+                FROM Absence a
+                JOIN a.user u
+                LEFT JOIN a.justification j
+                WHERE 1 = 1
+                """);
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getFrom() != null) {
+            jpql.append(" AND a.date >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND a.date <= :to");
+            params.put("to", filter.getTo());
+        }
+        if (filter.getUserId() != null) {
+            jpql.append(" AND u.id = :userId");
+            params.put("userId", filter.getUserId());
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND a.type = :type");
+            params.put("type", filter.getType());
+        }
+        if (filter.getIsAccepted() != null) {
+            jpql.append(" AND a.isAccepted = :isAccepted");
+            params.put("isAccepted", filter.getIsAccepted());
+        }
+        if (filter.getJustification() != null) {
+            switch (filter.getJustification()) {
+                case NONE -> jpql.append(" AND j.id IS NULL");
+                case PENDING -> jpql.append(" AND j.id IS NOT NULL AND j.isApproved IS NULL");
+                case APPROVED -> jpql.append(" AND j.isApproved = true");
+                case REJECTED -> jpql.append(" AND j.isApproved = false");
+            }
+        }
+
+        // Keyset: apenas linhas estritamente "depois" do último item da página anterior
+        if (cursorDate != null && cursorId != null) {
+            jpql.append(" AND (a.date < :cursorDate OR (a.date = :cursorDate AND a.id < :cursorId))");
+            params.put("cursorDate", cursorDate);
+            params.put("cursorId", cursorId);
+        }
+
+        jpql.append(" ORDER BY a.date DESC, a.id DESC");
+
+        TypedQuery<AbsenceFeedItemDTO> query = entityManager.createQuery(jpql.toString(), AbsenceFeedItemDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+
+        return query.getResultList();
+    }
+}
@@ -3,18 +3,26 @@ package com.vilaagro.api.repository;
 import com.vilaagro.api.model.Absence;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface AbsenceRepository extends JpaRepository<Absence, UUID> {
+public interface AbsenceRepository extends JpaRepository<Absence, UUID>, AbsenceFeedRepository {
     List<Absence> findByUserIdOrderByDateDesc(UUID userId);
     Optional<Absence> findByUserIdAndDate(UUID userId, LocalDate date);
 
-    @Query("SELECT a FROM Absence a LEFT JOIN FETCH a.user LEFT JOIN FETCH a.justification ORDER BY a.date DESC")
-    List<Absence> findAllByOrderByDateDesc();
+    // Usuários (dentre os informados) que já possuem falta registrada na data, em uma única consulta
+    @Query("SELECT a.user.id FROM Absence a WHERE a.date = :date AND a.user.id IN :userIds")
+    Set<UUID> findUserIdsWithAbsenceOn(@Param("date") LocalDate date, @Param("userIds") Collection<UUID> userIds);
+
+    // Faltas de um usuário com a justificativa, para recalcular o agregado de frequência sem N+1
+    @Query("SELECT a FROM Absence a LEFT JOIN FETCH a.justification WHERE a.user.id = :userId ORDER BY a.date DESC")
+    List<Absence> findByUserIdWithJustification(@Param("userId") UUID userId);
 }
\ No newline at end of file
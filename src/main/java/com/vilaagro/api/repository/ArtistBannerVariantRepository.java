@@ -0,0 +1,26 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.ArtistBannerVariant;
+import com.vilaagro.api.model.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ArtistBannerVariantRepository extends JpaRepository<ArtistBannerVariant, UUID> {
+
+    Optional<ArtistBannerVariant> findByArtistIdAndVariant(UUID artistId, ImageVariant variant);
+
+    @Query("SELECT v.checksum FROM ArtistBannerVariant v WHERE v.artistId = :artistId")
+    List<String> findChecksumsByArtistId(@Param("artistId") UUID artistId);
+
+    @Modifying
+    @Query("DELETE FROM ArtistBannerVariant v WHERE v.artistId = :artistId")
+    int deleteByArtistId(@Param("artistId") UUID artistId);
+}
@@ -3,8 +3,12 @@ package com.vilaagro.api.repository;
 import com.vilaagro.api.model.Artist;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ArtistRepository extends JpaRepository<Artist, UUID> {
-}
\ No newline at end of file
+    List<Artist> findByNameIn(Collection<String> names);
+}
@@ -0,0 +1,11 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.AttendanceCompliance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface AttendanceComplianceRepository extends JpaRepository<AttendanceCompliance, UUID> {
+}
@@ -1,7 +1,10 @@
 package com.vilaagro.api.repository;
 
+import com.vilaagro.api.dto.AttractionRowDTO;
 import com.vilaagro.api.model.Attraction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -10,5 +13,23 @@ import java.util.UUID;
 
 @Repository
 public interface AttractionRepository extends JpaRepository<Attraction, UUID> {
-    List<Attraction> findByFairDateGreaterThanEqualOrderByFairDateAsc(LocalDate date);
+
+    /**
+     * Projeção da listagem: atração, feira e artista em uma única consulta, sem ler o banner
+     */
+    String ROW_SELECT =
+            "SELECT new com.vilaagro.api.dto.AttractionRowDTO(" +
+            "a.id, a.timeStart, a.timeEnd, " +
+            "f.id, f.date, f.startTime, f.endTime, f.expectedMerchants, f.notes, f.status, f.createdAt, f.updatedAt, " +
+            "ar.id, ar.name, ar.genre, COALESCE(ar.hasBanner, false)) " +
+            "FROM Attraction a JOIN a.fair f JOIN a.artist ar ";
+
+    @Query(ROW_SELECT + "ORDER BY f.date ASC, a.timeStart ASC")
+    List<AttractionRowDTO> findAllRows();
+
+    @Query(ROW_SELECT + "WHERE f.date >= :date ORDER BY f.date ASC, a.timeStart ASC")
+    List<AttractionRowDTO> findRowsFromDate(@Param("date") LocalDate date);
+
+    @Query(ROW_SELECT + "WHERE f.id = :fairId ORDER BY a.timeStart ASC")
+    List<AttractionRowDTO> findRowsByFairId(@Param("fairId") UUID fairId);
 }
@@ -1,10 +1,15 @@
 package com.vilaagro.api.repository;
 
+import com.vilaagro.api.model.AccountStatus;
 import com.vilaagro.api.model.Document;
 import com.vilaagro.api.model.DocumentType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +18,13 @@ import java.util.UUID;
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
     List<Document> findByUserId(UUID userId);
     Optional<Document> findByUserIdAndType(UUID userId, DocumentType type);
+
+    // Quais dos caminhos informados ainda são referenciados (coleta de arquivos órfãos, em lotes)
+    @Query("SELECT d.filePath FROM Document d WHERE d.filePath IN :paths")
+    List<String> findExistingFilePaths(@Param("paths") Collection<String> paths);
+
+    // Atualiza o status de todos os documentos dos usuários informados em um único comando
+    @Modifying
+    @Query("UPDATE Document d SET d.status = :status WHERE d.user.id IN :userIds")
+    int updateStatusByUserIds(@Param("userIds") Collection<UUID> userIds, @Param("status") AccountStatus status);
 }
@@ -0,0 +1,25 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.FairCheckIn;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface FairCheckInRepository extends JpaRepository<FairCheckIn, UUID> {
+
+    // Usuários que já fizeram check-in na feira
+    @Query("SELECT c.userId FROM FairCheckIn c WHERE c.fairId = :fairId")
+    Set<UUID> findUserIdsByFairId(@Param("fairId") UUID fairId);
+
+    // Dentre os informados, usuários que já possuem check-in gravado na feira
+    @Query("SELECT c.userId FROM FairCheckIn c WHERE c.fairId = :fairId AND c.userId IN :userIds")
+    Set<UUID> findExistingUserIds(@Param("fairId") UUID fairId, @Param("userIds") Collection<UUID> userIds);
+
+    long countByFairId(UUID fairId);
+}
@@ -0,0 +1,9 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -1,22 +1,47 @@
 package com.vilaagro.api.repository;
 
 import com.vilaagro.api.model.JustificationForAbsence;
+import com.vilaagro.api.dto.PendingJustificationDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface JustificationRepository extends JpaRepository<JustificationForAbsence, UUID> {
+
+    // Projeção comum da fila de pendentes: justificativa + falta + comerciante, sem carregar entidades
+    String PENDING_QUEUE_SELECT = "SELECT new com.vilaagro.api.dto.PendingJustificationDTO("
+            + "j.id, a.id, a.date, a.type, u.id, u.name, j.description, "
+            + "j.annexOriginalFilename, j.annexSize, j.createdAt) "
+            + "FROM JustificationForAbsence j JOIN j.absence a JOIN a.user u";
+
     boolean existsByAbsenceId(UUID absenceId);
 
-    // Busca justificativas pendentes de análise (RF-D.1.5)
-    @Query("SELECT j FROM JustificationForAbsence j WHERE j.isApproved IS NULL OR j.isApproved = false")
-    List<JustificationForAbsence> findPendingJustifications();
+    // Fila de justificativas pendentes (RF-D.1.5): mesmo critério de countByIsApprovedIsNull,
+    // projeção com falta e usuário em uma única consulta, ordenada pelo índice (is_approved, created_at)
+    @Query(PENDING_QUEUE_SELECT + " WHERE j.isApproved IS NULL ORDER BY j.createdAt ASC, j.id ASC")
+    List<PendingJustificationDTO> findPendingQueue(Pageable pageable);
 
-    long countByIsApprovedIsNull();
+    // Próxima página da fila, a partir da posição (createdAt, id) do último item entregue
+    @Query(PENDING_QUEUE_SELECT + " WHERE j.isApproved IS NULL"
+            + " AND (j.createdAt > :createdAt OR (j.createdAt = :createdAt AND j.id > :id))"
+            + " ORDER BY j.createdAt ASC, j.id ASC")
+    List<PendingJustificationDTO> findPendingQueueAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
 
+    long countByIsApprovedIsNull();
 
+    // Quais dos anexos informados ainda são referenciados (coleta de arquivos órfãos, em lotes)
+    @Query("SELECT j.annexPath FROM JustificationForAbsence j WHERE j.annexPath IN :paths")
+    List<String> findExistingAnnexPaths(@Param("paths") Collection<String> paths);
 }
\ No newline at end of file
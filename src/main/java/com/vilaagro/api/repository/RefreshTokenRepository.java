@@ -0,0 +1,49 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // jtis ainda válidos de uma família, para alimentar o índice de revogação em memória
+    @Query("SELECT r.jti FROM RefreshToken r WHERE r.familyId = :familyId AND r.revoked = false")
+    List<String> findActiveJtisByFamilyId(@Param("familyId") UUID familyId);
+
+    @Query("SELECT r.jti FROM RefreshToken r WHERE r.userId = :userId AND r.revoked = false")
+    List<String> findActiveJtisByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT r.jti FROM RefreshToken r WHERE r.userId IN :userIds AND r.revoked = false")
+    List<String> findActiveJtisByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    // Marca o token como usado apenas se ainda estiver disponível (uso único), registrando o sucessor
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now, r.replacedBy = :successor WHERE r.jti = :jti " +
+           "AND r.usedAt IS NULL AND r.revoked = false AND r.expiresAt > :now")
+    int markUsed(@Param("jti") String jti, @Param("successor") String successor, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.userId = :userId AND r.revoked = false")
+    int revokeAllByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.userId IN :userIds AND r.revoked = false")
+    int revokeAllByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
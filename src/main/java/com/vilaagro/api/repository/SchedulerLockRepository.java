@@ -0,0 +1,31 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    // Assume a trava apenas se ela estiver livre (expirada); o UPDATE condicional é atômico no banco
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until, l.lockedAt = :now, l.lockedBy = :node " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquire(@Param("name") String name, @Param("node") String node,
+                @Param("now") Instant now, @Param("until") Instant until);
+
+    // Prolonga a trava, somente se ainda pertencer a este nó
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until WHERE l.name = :name AND l.lockedBy = :node")
+    int extend(@Param("name") String name, @Param("node") String node, @Param("until") Instant until);
+
+    // Libera a trava ao final do job
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :node")
+    int release(@Param("name") String name, @Param("node") String node, @Param("now") Instant now);
+}
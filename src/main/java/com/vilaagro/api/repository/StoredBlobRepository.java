@@ -0,0 +1,33 @@
+package com.vilaagro.api.repository;
+
+import com.vilaagro.api.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Incrementos/decrementos atômicos no banco, seguros entre transações concorrentes
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 WHERE b.checksum = :checksum")
+    int retain(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.checksum = :checksum AND b.refCount > 0")
+    int release(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.checksum = :checksum AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("checksum") String checksum);
+
+    // Quais dos conteúdos informados ainda têm referências (coleta de arquivos órfãos, em lotes);
+    // registros sem referência sobram quando a primeira gravação é desfeita
+    @Query("SELECT b.checksum FROM StoredBlob b WHERE b.checksum IN :checksums AND b.refCount > 0")
+    List<String> findExistingChecksums(@Param("checksums") Collection<String> checksums);
+}
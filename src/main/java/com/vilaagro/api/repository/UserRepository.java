@@ -3,9 +3,17 @@ package com.vilaagro.api.repository;
 import com.vilaagro.api.model.User;
 import com.vilaagro.api.model.UserType;
 import com.vilaagro.api.model.AccountStatus;
+import org.springframework.data.domain.Pageable;
+import com.vilaagro.api.dto.ReviewQueueRowDTO;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +24,13 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    // Projeção da fila de revisão: usuário e seus documentos em uma única consulta, sem carregar entidades
+    String REVIEW_QUEUE_SELECT = "SELECT new com.vilaagro.api.dto.ReviewQueueRowDTO("
+            + "u.id, u.name, u.email, u.cpf, u.type, u.createdAt, "
+            + "d.id, d.type, d.originalFileName, d.contentType, d.fileSize, d.checksum, d.status, d.uploadedAt) "
+            + "FROM User u LEFT JOIN Document d ON d.user = u "
+            + "WHERE u.documentsStatus = :status AND u.type <> :excludedType";
+
     /**
      * Busca um usuário pelo email
      */
@@ -43,5 +58,54 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     long countByDocumentsStatus(AccountStatus documentsStatus);
 
+    /**
+     * Conta usuários por status, exceto os do tipo informado (ex.: comerciantes ativos)
+     */
+    long countByDocumentsStatusAndTypeNot(AccountStatus documentsStatus, UserType type);
+
+    /**
+     * Ids dos usuários com o status informado, exceto os do tipo informado (ex.: comerciantes ativos)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.documentsStatus = :status AND u.type <> :excludedType")
+    List<UUID> findIdsByStatusExcludingType(@Param("status") AccountStatus status,
+                                            @Param("excludedType") UserType excludedType);
+
     Optional<User> findByIdAndDocumentsStatus(UUID id, AccountStatus documentsStatus);
+
+    /**
+     * Lote de usuários por status em ordem de id (primeira página de uma varredura em lotes)
+     */
+    List<User> findByDocumentsStatusOrderByIdAsc(AccountStatus documentsStatus, Pageable pageable);
+
+    /**
+     * Próximo lote de usuários por status após o último id processado (paginação por chave)
+     */
+    List<User> findByDocumentsStatusAndIdGreaterThanOrderByIdAsc(AccountStatus documentsStatus, UUID id, Pageable pageable);
+
+    /**
+     * Fila de revisão de cadastros em ordem de chegada (uma linha por documento)
+     */
+    @Query(REVIEW_QUEUE_SELECT + " ORDER BY u.createdAt ASC, u.id ASC, d.type ASC")
+    List<ReviewQueueRowDTO> findReviewQueue(@Param("status") AccountStatus status,
+                                            @Param("excludedType") UserType excludedType,
+                                            Pageable pageable);
+
+    /**
+     * Continuação da fila a partir da posição (createdAt, id) do último usuário entregue
+     */
+    @Query(REVIEW_QUEUE_SELECT
+            + " AND (u.createdAt > :createdAt OR (u.createdAt = :createdAt AND u.id > :id))"
+            + " ORDER BY u.createdAt ASC, u.id ASC, d.type ASC")
+    List<ReviewQueueRowDTO> findReviewQueueAfter(@Param("status") AccountStatus status,
+                                                 @Param("excludedType") UserType excludedType,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") UUID id,
+                                                 Pageable pageable);
+
+    /**
+     * Usuários do lote que ainda estão no status informado, travados até o fim da transação
+     * (dois administradores não decidem o mesmo cadastro ao mesmo tempo)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<User> findByIdInAndDocumentsStatus(Collection<UUID> ids, AccountStatus documentsStatus);
 }
@@ -2,6 +2,7 @@ package com.vilaagro.api.security;
 
 import com.vilaagro.api.service.CustomUserDetailsService;
 import com.vilaagro.api.service.JwtService;
+import com.vilaagro.api.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -53,24 +54,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // Extrai o email do token
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Verifica o token uma única vez (assinatura, expiração e claims)
+            final VerifiedToken token = jwtService.verify(jwt);
+            final String userEmail = token.getSubject();
 
             // Se o token contém um email válido e não há autenticação no contexto atual
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
                 // Verifica se é um Access Token
-                if (!jwtService.isAccessToken(jwt)) {
+                if (!token.isAccessToken()) {
                     log.warn("Token fornecido não é um Access Token válido");
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // Carrega os detalhes do usuário
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // Carrega os detalhes do usuário (cache de principals, com fallback para o banco)
+                UserDetails userDetails = this.userDetailsService.loadCachedPrincipal(userEmail, token.getUserId());
 
                 // Valida o token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(token, userDetails)) {
                     // Cria o token de autenticação do Spring Security
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -128,7 +130,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         
         return path.startsWith("/api/auth/") ||
                path.equals("/error") ||
-               path.startsWith("/actuator/") ||
+               path.equals("/actuator/health") ||
                path.startsWith("/swagger-ui/") ||
                path.startsWith("/v3/api-docs");
     }
@@ -0,0 +1,66 @@
+package com.vilaagro.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Implementação em memória do RateLimitStore
+ * Os baldes ficam em um mapa concorrente particionado (Caffeine) e são descartados
+ * após um período sem uso, limitando a memória mesmo sob ataques com muitos emails/IPs
+ */
+@Component
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public LocalRateLimitStore(
+            @Value("${security.login-throttle.idle-eviction-minutes:30}") long idleEvictionMinutes,
+            @Value("${security.login-throttle.max-keys:100000}") long maxKeys
+    ) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(idleEvictionMinutes))
+                .build();
+    }
+
+    @Override
+    public long tryConsume(String key, int capacity, Duration refillInterval) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, refillInterval.toNanos()));
+        return bucket.tryConsume();
+    }
+
+    /**
+     * Balde de fichas com reposição contínua
+     */
+    private static final class TokenBucket {
+        private final int capacity;
+        private final long nanosPerToken;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, long nanosPerToken) {
+            this.capacity = capacity;
+            this.nanosPerToken = nanosPerToken;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized long tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+
+            long nanosUntilNext = (long) ((1 - tokens) * nanosPerToken);
+            return Math.max(1, Duration.ofNanos(nanosUntilNext).toSeconds());
+        }
+    }
+}
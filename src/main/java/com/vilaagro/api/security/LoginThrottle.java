@@ -0,0 +1,89 @@
+package com.vilaagro.api.security;
+
+import com.vilaagro.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limita tentativas de login por email e por IP antes de chegar ao AuthenticationManager
+ * Cada tentativa bloqueada aqui economiza uma verificação BCrypt completa
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private final RateLimitStore store;
+
+    private final int emailCapacity;
+    private final Duration emailRefillInterval;
+    private final int ipCapacity;
+    private final Duration ipRefillInterval;
+
+    private final Counter allowedCounter;
+    private final Counter emailThrottledCounter;
+    private final Counter ipThrottledCounter;
+    private final Counter storeErrorCounter;
+
+    public LoginThrottle(
+            RateLimitStore store,
+            MeterRegistry meterRegistry,
+            @Value("${security.login-throttle.email.capacity:5}") int emailCapacity,
+            @Value("${security.login-throttle.email.refill-seconds:60}") long emailRefillSeconds,
+            @Value("${security.login-throttle.ip.capacity:30}") int ipCapacity,
+            @Value("${security.login-throttle.ip.refill-seconds:10}") long ipRefillSeconds
+    ) {
+        this.store = store;
+        this.emailCapacity = emailCapacity;
+        this.emailRefillInterval = Duration.ofSeconds(emailRefillSeconds);
+        this.ipCapacity = ipCapacity;
+        this.ipRefillInterval = Duration.ofSeconds(ipRefillSeconds);
+
+        this.allowedCounter = meterRegistry.counter("auth.login.throttle", "result", "allowed");
+        this.emailThrottledCounter = meterRegistry.counter("auth.login.throttle", "result", "blocked_email");
+        this.ipThrottledCounter = meterRegistry.counter("auth.login.throttle", "result", "blocked_ip");
+        this.storeErrorCounter = meterRegistry.counter("auth.login.throttle", "result", "store_error");
+    }
+
+    /**
+     * Consome uma tentativa para o IP e para o email informados
+     * Falha fechada: se o armazenamento estiver indisponível, a tentativa é recusada
+     *
+     * @throws TooManyRequestsException se algum dos limites foi excedido
+     */
+    public void checkAttempt(String email, String clientIp) {
+        long retryAfter;
+
+        try {
+            // O IP é verificado primeiro para que ataques de pulverização não consumam os baldes de email
+            retryAfter = store.tryConsume("ip:" + clientIp, ipCapacity, ipRefillInterval);
+            if (retryAfter > 0) {
+                ipThrottledCounter.increment();
+                log.warn("Tentativas de login bloqueadas para o IP: {}", clientIp);
+                throw new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde", retryAfter);
+            }
+
+            String normalizedEmail = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+            retryAfter = store.tryConsume("email:" + normalizedEmail, emailCapacity, emailRefillInterval);
+            if (retryAfter > 0) {
+                emailThrottledCounter.increment();
+                log.warn("Tentativas de login bloqueadas para o email: {}", normalizedEmail);
+                throw new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde", retryAfter);
+            }
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            storeErrorCounter.increment();
+            log.error("Erro no armazenamento de limitação de login: {}", e.getMessage());
+            throw new TooManyRequestsException("Login temporariamente indisponível, tente novamente mais tarde",
+                    emailRefillInterval.toSeconds());
+        }
+
+        allowedCounter.increment();
+    }
+}
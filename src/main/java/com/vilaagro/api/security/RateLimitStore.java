@@ -0,0 +1,21 @@
+package com.vilaagro.api.security;
+
+import java.time.Duration;
+
+/**
+ * Armazenamento dos baldes de fichas (token buckets) usados na limitação de tentativas
+ * A implementação local atende um único nó; com mais de uma instância, registre
+ * outro bean desta interface (com @Primary) apontando para um armazenamento compartilhado
+ */
+public interface RateLimitStore {
+
+    /**
+     * Tenta consumir uma ficha do balde identificado pela chave
+     *
+     * @param key            identificador do balde (ex.: "email:fulano@x.com")
+     * @param capacity       quantidade máxima de fichas do balde
+     * @param refillInterval tempo para repor uma ficha
+     * @return 0 se a ficha foi consumida, ou os segundos até a próxima ficha disponível
+     */
+    long tryConsume(String key, int capacity, Duration refillInterval);
+}
@@ -1,6 +1,8 @@
 package com.vilaagro.api.security;
 
 import com.vilaagro.api.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -50,11 +52,23 @@ public class SecurityConfig {
     @Value("${security.cors.allow-credentials}")
     private boolean allowCredentials;
 
+    @Value("${security.password.bcrypt-strength:12}")
+    private int bcryptStrength;
+
+    @Value("${security.password.hash-concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int hashConcurrency;
+
+    @Value("${security.password.hash-queue-capacity:64}")
+    private int hashQueueCapacity;
+
+    @Value("${security.password.retry-after-seconds:5}")
+    private long hashRetryAfterSeconds;
+
     /**
      * Configura a cadeia de filtros de segurança
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
                 // Desabilita CSRF (adequado para APIs stateless com JWT)
                 .csrf(AbstractHttpConfigurer::disable)
@@ -67,14 +81,17 @@ public class SecurityConfig {
 
                 // Configura autorização de requisições
                 .authorizeHttpRequests(auth -> auth
+                        // Despacho assíncrono de respostas em streaming: a requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints públicos - não requerem autenticação
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/users/public",
                                 "/api/attractions/**",
                                 "/api/artists/*/banner",
+                                "/api/documents/*/content/signed",
                                 "/api/fairs/**",
-                                "/api/notifications/**",
                                 "/courses/**",
                                 "/api/sale-points/**",
                                 "/error",
@@ -85,6 +102,12 @@ public class SecurityConfig {
                                 "/api/public/**"
                         ).permitAll()
 
+                        // Métricas e demais endpoints do actuator apenas para administradores
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+
+                        // Notificações são alertas administrativos (frequência, análise de documentos)
+                        .requestMatchers("/api/notifications/**").hasAuthority("ADMIN")
+
                         // Todas as outras requisições requerem autenticação
                         .anyRequest().authenticated()
                 )
@@ -95,7 +118,7 @@ public class SecurityConfig {
                 )
 
                 // Define o provedor de autenticação
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // Adiciona o filtro JWT antes do filtro de autenticação padrão
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -139,20 +162,29 @@ public class SecurityConfig {
     /**
      * Bean para codificação de senhas usando BCrypt
      * BCrypt é um algoritmo de hash seguro e adaptativo
+     * O hash roda em um pool limitado para não saturar os workers HTTP em picos de login
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Força 12 (recomendado para segurança)
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength), // Força 12 por padrão (recomendado para segurança)
+                hashConcurrency,
+                hashQueueCapacity,
+                hashRetryAfterSeconds,
+                meterRegistry
+        );
     }
 
     /**
      * Provedor de autenticação que usa o UserDetailsService personalizado
+     * Senhas com custo diferente do configurado são re-hashadas no login
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
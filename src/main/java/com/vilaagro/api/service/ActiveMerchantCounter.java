@@ -0,0 +1,91 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador em memória de comerciantes ativos (status ACTIVE e tipo diferente de ADMIN)
+ * Atualizado nas transições de status dos usuários, após o commit; evita contar a tabela
+ * de usuários a cada listagem de feiras. Uma reconciliação periódica corrige desvios
+ * (ex.: alterações feitas por outra instância).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveMerchantCounter {
+
+    private static final long NOT_LOADED = -1;
+
+    private final UserRepository userRepository;
+
+    private final AtomicLong count = new AtomicLong(NOT_LOADED);
+
+    /**
+     * Verifica se o usuário entra na contagem de comerciantes ativos
+     */
+    public static boolean isActiveMerchant(User user) {
+        return user != null
+                && user.getType() != UserType.ADMIN
+                && user.getDocumentsStatus() == AccountStatus.ACTIVE;
+    }
+
+    /**
+     * Quantidade atual de comerciantes ativos (carregada do banco na primeira chamada)
+     */
+    public long get() {
+        long current = count.get();
+        if (current == NOT_LOADED) {
+            return reconcile();
+        }
+        return current;
+    }
+
+    /**
+     * Registra a transição de um usuário; só altera o contador se ele entrou ou saiu da contagem
+     */
+    public void onTransition(boolean wasActiveMerchant, boolean isActiveMerchant) {
+        if (wasActiveMerchant == isActiveMerchant) {
+            return;
+        }
+
+        long delta = isActiveMerchant ? 1 : -1;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(delta);
+                }
+            });
+        } else {
+            apply(delta);
+        }
+    }
+
+    /**
+     * Recarrega o contador a partir do banco (COUNT indexado, sem carregar usuários)
+     */
+    @Scheduled(fixedDelayString = "${fair.active-merchants.reconcile-ms:300000}")
+    public long reconcile() {
+        long actual = userRepository.countByDocumentsStatusAndTypeNot(AccountStatus.ACTIVE, UserType.ADMIN);
+        long previous = count.getAndSet(actual);
+        if (previous != NOT_LOADED && previous != actual) {
+            log.info("Contador de comerciantes ativos ajustado de {} para {}", previous, actual);
+        }
+        return actual;
+    }
+
+    private void apply(long delta) {
+        // Ainda não carregado: a próxima leitura já busca o valor correto no banco
+        count.updateAndGet(current -> current == NOT_LOADED ? NOT_LOADED : Math.max(0, current + delta));
+    }
+}
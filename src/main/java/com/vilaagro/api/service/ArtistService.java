@@ -5,6 +5,7 @@ import com.vilaagro.api.dto.ArtistCreateDTO;
 import com.vilaagro.api.dto.ArtistResponseDTO;
 import com.vilaagro.api.exception.ResourceNotFoundException;
 import com.vilaagro.api.model.Artist;
+import com.vilaagro.api.model.ImageVariant;
 import com.vilaagro.api.repository.ArtistRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,9 @@ import java.util.stream.Collectors;
 public class ArtistService {
 
     private final ArtistRepository artistRepository;
+    private final BlobStore blobStore;
+    private final BannerDerivativeService bannerDerivativeService;
+    private final PublicResponseCache publicResponseCache;
 
     /**
      * Cria um novo Artista, lidando com o upload do banner
@@ -32,12 +37,13 @@ public class ArtistService {
         artist.setName(createDTO.getName());
         artist.setGenre(createDTO.getGenre());
 
+        Artist savedArtist = artistRepository.save(artist);
+
         // Processa o arquivo e salva os bytes
         if (file != null && !file.isEmpty()) {
-            artist.setBanner(file.getBytes());
+            replaceBanner(savedArtist, file.getBytes());
         }
 
-        Artist savedArtist = artistRepository.save(artist);
         return convertToResponseDTO(savedArtist);
     }
 
@@ -53,25 +59,66 @@ public class ArtistService {
 
         // Se um novo arquivo for enviado, ele substitui o antigo
         if (file != null && !file.isEmpty()) {
-            artist.setBanner(file.getBytes());
+            replaceBanner(artist, file.getBytes());
         }
 
         Artist updatedArtist = artistRepository.save(artist);
+        publicResponseCache.invalidateAll(); // Atrações públicas exibem os dados do artista
         return convertToResponseDTO(updatedArtist);
     }
 
     /**
-     * Busca os bytes do banner de um artista (para download)
+     * Abre o banner de um artista para download em streaming
+     * Com {@code variant}, devolve a versão redimensionada; enquanto ela não foi gerada, devolve o original
      */
     @Transactional(readOnly = true)
-    public byte[] getArtistBanner(UUID id) {
+    public FileDownload getArtistBanner(UUID id, ImageVariant variant) {
         Artist artist = artistRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Artista", "id", id));
 
-        if (artist.getBanner() == null) {
+        if (!Boolean.TRUE.equals(artist.getHasBanner()) || artist.getBannerChecksum() == null) {
             throw new ResourceNotFoundException("Banner", "id", id);
         }
-        return artist.getBanner();
+
+        BlobInfo blob = Optional.ofNullable(variant)
+                .flatMap(v -> bannerDerivativeService.findVariant(artist, v))
+                .or(() -> blobStore.stat(artist.getBannerChecksum()))
+                .orElseThrow(() -> new ResourceNotFoundException("Banner", "id", id));
+
+        return FileDownload.builder()
+                .resource(blobStore.open(blob.getChecksum()))
+                .contentType(servableType(blob.getContentType()))
+                .filename("banner" + extensionOf(blob.getContentType()))
+                .size(blob.getSize())
+                .checksum(blob.getChecksum())
+                .lastModified(blob.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Grava (ou substitui) o banner do artista e atualiza os metadados usados nas listagens
+     * O conteúdo vai para o BlobStore; o banner anterior perde a referência deste artista
+     * O tipo gravado é o identificado nos bytes: o banner é público e servido inline
+     *
+     * @throws IllegalArgumentException se o conteúdo não for uma imagem JPEG, PNG ou GIF
+     */
+    public void replaceBanner(Artist artist, byte[] content) {
+        ImageMetadata metadata = ImageMetadata.of(content);
+        String previous = Boolean.TRUE.equals(artist.getHasBanner()) ? artist.getBannerChecksum() : null;
+
+        blobStore.put(content, metadata.getContentType());
+        blobStore.release(previous);
+
+        artist.setHasBanner(true);
+        artist.setBannerContentType(metadata.getContentType());
+        artist.setBannerSize(metadata.getSize());
+        artist.setBannerWidth(metadata.getWidth());
+        artist.setBannerHeight(metadata.getHeight());
+        artist.setBannerChecksum(metadata.getChecksum());
+        artistRepository.save(artist);
+
+        // Variantes (thumb, medium, full) são geradas em segundo plano após o commit
+        bannerDerivativeService.scheduleAfterCommit(artist.getId(), metadata.getChecksum());
     }
 
     /**
@@ -88,10 +135,15 @@ public class ArtistService {
      * Deleta um artista
      */
     public void deleteArtist(UUID id) {
-        if (!artistRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Artista", "id", id);
+        Artist artist = artistRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Artista", "id", id));
+
+        bannerDerivativeService.deleteVariants(id);
+        if (Boolean.TRUE.equals(artist.getHasBanner())) {
+            blobStore.release(artist.getBannerChecksum());
         }
-        artistRepository.deleteById(id);
+        artistRepository.delete(artist);
+        publicResponseCache.invalidateAll();
     }
 
     /**
@@ -102,7 +154,22 @@ public class ArtistService {
                 .id(artist.getId())
                 .name(artist.getName())
                 .genre(artist.getGenre())
-                .hasBanner(artist.getBanner() != null && artist.getBanner().length > 0)
+                .hasBanner(Boolean.TRUE.equals(artist.getHasBanner()))
                 .build();
     }
+
+    /**
+     * Banners gravados antes da validação por conteúdo podem ter outro tipo: não são servidos como exibíveis
+     */
+    private String servableType(String contentType) {
+        return ImageMetadata.ALLOWED_CONTENT_TYPES.contains(contentType) ? contentType : "application/octet-stream";
+    }
+
+    private String extensionOf(String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return "";
+        }
+        String subtype = contentType.substring("image/".length());
+        return "." + (subtype.equals("jpeg") ? "jpg" : subtype);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.model.Absence;
+import com.vilaagro.api.model.AttendanceCompliance;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.repository.AbsenceRepository;
+import com.vilaagro.api.repository.AttendanceComplianceRepository;
+import com.vilaagro.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço que mantém o agregado de frequência (AttendanceCompliance) de cada comerciante
+ * As operações de falta/justificativa aplicam apenas a diferença no agregado, na mesma transação;
+ * o recálculo completo fica para casos raros (falta fora de ordem, virada de ano, backfill)
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class AttendanceComplianceService {
+
+    // Regra de conformidade: menos de 3 faltas consecutivas e menos de 6 não justificadas no ano
+    public static final long MAX_CONSECUTIVE_ABSENCES = 3;
+    public static final long MAX_YEARLY_UNJUSTIFIED = 6;
+
+    // Faltas com até 2 semanas de diferença são consideradas consecutivas (feiras semanais)
+    private static final long MAX_GAP_DAYS = 14;
+
+    private static final int RECOMPUTE_PAGE_SIZE = 200;
+
+    private final AttendanceComplianceRepository complianceRepository;
+    private final AbsenceRepository absenceRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Situação de uma falta para fins de contagem
+     */
+    public enum AbsenceState {
+        JUSTIFIED,
+        PENDING,
+        UNJUSTIFIED;
+
+        public static AbsenceState of(Absence absence) {
+            if (Boolean.TRUE.equals(absence.getIsAccepted())) {
+                return JUSTIFIED;
+            }
+            if (absence.getJustification() != null && absence.getJustification().getIsApproved() == null) {
+                return PENDING;
+            }
+            return UNJUSTIFIED;
+        }
+    }
+
+    /**
+     * Obtém o agregado do usuário; se ainda não existir ou se o ano mudou, calcula sem gravar
+     * (leitura pura: o agregado é gravado pelas operações de falta/justificativa e pela varredura)
+     */
+    @Transactional(readOnly = true)
+    public AttendanceCompliance getOrCompute(UUID userId) {
+        return complianceRepository.findById(userId)
+                .filter(compliance -> compliance.getReferenceYear() == currentYear())
+                .orElseGet(() -> calculate(AttendanceCompliance.builder().userId(userId).build(),
+                        absenceRepository.findByUserIdWithJustification(userId)));
+    }
+
+    /**
+     * Verifica se o agregado atende à regra de frequência
+     */
+    public boolean isCompliant(AttendanceCompliance compliance) {
+        return compliance.getConsecutiveAbsences() < MAX_CONSECUTIVE_ABSENCES
+                && compliance.getYearlyUnjustified() < MAX_YEARLY_UNJUSTIFIED;
+    }
+
+    /**
+     * Aplica faltas recém-criadas aos agregados dos seus usuários (uma consulta para todos)
+     */
+    public void recordNewAbsences(Collection<Absence> absences) {
+        if (absences.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> userIds = absences.stream()
+                .map(absence -> absence.getUser().getId())
+                .collect(Collectors.toSet());
+        Map<UUID, AttendanceCompliance> byUser = complianceRepository.findAllById(userIds)
+                .stream()
+                .collect(Collectors.toMap(AttendanceCompliance::getUserId, Function.identity()));
+
+        Set<UUID> needsRecompute = new HashSet<>();
+        List<Absence> ordered = absences.stream()
+                .sorted(Comparator.comparing(Absence::getDate))
+                .collect(Collectors.toList());
+
+        for (Absence absence : ordered) {
+            UUID userId = absence.getUser().getId();
+            AttendanceCompliance compliance = byUser.get(userId);
+
+            if (needsRecompute.contains(userId)) {
+                continue;
+            }
+
+            // Sem agregado, virada de ano ou falta anterior à última registrada: recalcula do zero
+            if (compliance == null
+                    || compliance.getReferenceYear() != currentYear()
+                    || (compliance.getLastAbsenceDate() != null && absence.getDate().isBefore(compliance.getLastAbsenceDate()))) {
+                needsRecompute.add(userId);
+                continue;
+            }
+
+            AbsenceState state = AbsenceState.of(absence);
+            compliance.setTotalAbsences(compliance.getTotalAbsences() + 1);
+            applyDelta(compliance, absence, state, 1);
+
+            if (state == AbsenceState.JUSTIFIED) {
+                compliance.setConsecutiveAbsences(0L);
+            } else if (compliance.getLastAbsenceDate() == null
+                    || !isConsecutive(compliance.getLastAbsenceDate(), absence.getDate())) {
+                compliance.setConsecutiveAbsences(1L);
+            } else {
+                compliance.setConsecutiveAbsences(compliance.getConsecutiveAbsences() + 1);
+            }
+            compliance.setLastAbsenceDate(absence.getDate());
+        }
+
+        complianceRepository.saveAll(byUser.values().stream()
+                .filter(compliance -> !needsRecompute.contains(compliance.getUserId()))
+                .collect(Collectors.toList()));
+        needsRecompute.forEach(this::recompute);
+    }
+
+    /**
+     * Aplica a mudança de situação de uma falta existente (justificativa enviada ou analisada)
+     */
+    public void recordTransition(Absence absence, AbsenceState before) {
+        AbsenceState after = AbsenceState.of(absence);
+        if (before == after) {
+            return;
+        }
+
+        UUID userId = absence.getUser().getId();
+        AttendanceCompliance compliance = complianceRepository.findById(userId).orElse(null);
+
+        // A sequência depende de quais faltas foram aceitas; nesse caso recalcula o usuário
+        if (compliance == null
+                || compliance.getReferenceYear() != currentYear()
+                || (before == AbsenceState.JUSTIFIED) != (after == AbsenceState.JUSTIFIED)) {
+            recompute(userId);
+            return;
+        }
+
+        applyDelta(compliance, absence, before, -1);
+        applyDelta(compliance, absence, after, 1);
+        complianceRepository.save(compliance);
+    }
+
+    /**
+     * Recalcula e grava o agregado de um usuário a partir de todas as suas faltas
+     */
+    public AttendanceCompliance recompute(UUID userId) {
+        List<Absence> absences = absenceRepository.findByUserIdWithJustification(userId);
+        AttendanceCompliance compliance = complianceRepository.findById(userId)
+                .orElseGet(() -> AttendanceCompliance.builder().userId(userId).build());
+        return complianceRepository.save(calculate(compliance, absences));
+    }
+
+    /**
+     * Preenche os contadores a partir das faltas do usuário (em ordem decrescente de data)
+     */
+    private AttendanceCompliance calculate(AttendanceCompliance compliance, List<Absence> absences) {
+        int year = currentYear();
+        compliance.setReferenceYear(year);
+        compliance.setTotalAbsences((long) absences.size());
+        compliance.setJustifiedAbsences(0L);
+        compliance.setPendingJustifications(0L);
+        compliance.setUnjustifiedAbsences(0L);
+        compliance.setYearlyUnjustified(0L);
+
+        for (Absence absence : absences) {
+            applyDelta(compliance, absence, AbsenceState.of(absence), 1);
+        }
+
+        // Sequência atual: faltas não aceitas a partir da mais recente (lista já vem em ordem decrescente)
+        long streak = 0;
+        LocalDate previousDate = null;
+        for (Absence absence : absences) {
+            if (AbsenceState.of(absence) == AbsenceState.JUSTIFIED) {
+                break;
+            }
+            if (previousDate != null && !isConsecutive(absence.getDate(), previousDate)) {
+                break;
+            }
+            streak++;
+            previousDate = absence.getDate();
+        }
+        compliance.setConsecutiveAbsences(streak);
+        compliance.setLastAbsenceDate(absences.isEmpty() ? null : absences.get(0).getDate());
+        return compliance;
+    }
+
+    /**
+     * Admin: Recalcula o agregado de todos os usuários (backfill)
+     * Cada página de usuários roda em sua própria transação para não manter uma transação longa
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int recomputeAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int processed = 0;
+        int pageNumber = 0;
+        boolean hasNext;
+
+        do {
+            PageRequest pageRequest = PageRequest.of(pageNumber++, RECOMPUTE_PAGE_SIZE, Sort.by("id"));
+            Integer count = transactionTemplate.execute(status -> {
+                Page<User> page = userRepository.findAll(pageRequest);
+                page.forEach(user -> recompute(user.getId()));
+                return page.getNumberOfElements();
+            });
+            processed += count != null ? count : 0;
+            hasNext = count != null && count == RECOMPUTE_PAGE_SIZE;
+        } while (hasNext);
+
+        log.info("Agregado de frequência recalculado para {} usuário(s)", processed);
+        return processed;
+    }
+
+    private void applyDelta(AttendanceCompliance compliance, Absence absence, AbsenceState state, long delta) {
+        switch (state) {
+            case JUSTIFIED -> compliance.setJustifiedAbsences(compliance.getJustifiedAbsences() + delta);
+            case PENDING -> compliance.setPendingJustifications(compliance.getPendingJustifications() + delta);
+            case UNJUSTIFIED -> {
+                compliance.setUnjustifiedAbsences(compliance.getUnjustifiedAbsences() + delta);
+                if (absence.getDate().getYear() == compliance.getReferenceYear()) {
+                    compliance.setYearlyUnjustified(compliance.getYearlyUnjustified() + delta);
+                }
+            }
+        }
+    }
+
+    private boolean isConsecutive(LocalDate earlier, LocalDate later) {
+        long daysBetween = ChronoUnit.DAYS.between(earlier, later);
+        return daysBetween >= 1 && daysBetween <= MAX_GAP_DAYS;
+    }
+
+    private int currentYear() {
+        return LocalDate.now().getYear();
+    }
+}
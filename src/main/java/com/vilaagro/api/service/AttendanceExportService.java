@@ -0,0 +1,150 @@
+package com.vilaagro.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Exportação da frequência de um período (CSV ou XLSX) para a prestação de contas mensal
+ * As linhas são lidas com um cursor JDBC somente-avanço e escritas direto na resposta,
+ * então o uso de memória não depende da quantidade de faltas no período
+ */
+@Service
+@Slf4j
+public class AttendanceExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT a.date, u.name, a.type, a.is_accepted, j.id AS justification_id, j.is_approved " +
+            "FROM absence a " +
+            "JOIN users u ON u.id = a.user_id " +
+            "LEFT JOIN justification_for_absence j ON j.absence_id = a.id " +
+            "WHERE a.date BETWEEN ? AND ? " +
+            "ORDER BY a.date, a.id";
+
+    private static final List<String> HEADER = List.of(
+            "Data", "Comerciante", "Tipo", "Falta aceita", "Justificativa");
+
+    public enum ExportFormat {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final long maxRangeDays;
+
+    public AttendanceExportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${attendance.export.fetch-size:500}") int fetchSize,
+            @Value("${attendance.export.max-range-days:400}") long maxRangeDays
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Monta o corpo da resposta que escreve o arquivo enquanto lê o banco
+     * A validação do período acontece aqui, antes de a resposta começar a ser enviada
+     */
+    public StreamingResponseBody export(LocalDate from, LocalDate to, ExportFormat format) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("A data inicial deve ser anterior ou igual à data final");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxRangeDays) {
+            throw new IllegalArgumentException("O período máximo de exportação é de " + maxRangeDays + " dias");
+        }
+
+        return output -> {
+            TabularExportWriter writer = format == ExportFormat.XLSX
+                    ? new XlsxExportWriter(output, "Frequência")
+                    : new CsvExportWriter(output);
+            writer.writeRow(HEADER);
+
+            try {
+                // Transação somente leitura: nenhuma trava de escrita durante a exportação
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                        connection -> {
+                            PreparedStatement statement = connection.prepareStatement(
+                                    EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                            statement.setFetchSize(fetchSize);
+                            statement.setDate(1, Date.valueOf(from));
+                            statement.setDate(2, Date.valueOf(to));
+                            return statement;
+                        },
+                        (RowCallbackHandler) rs -> writeRow(writer, rs)
+                ));
+            } catch (UncheckedIOException e) {
+                // Cliente desconectou no meio do download
+                log.warn("Exportação de frequência interrompida: {}", e.getCause().getMessage());
+                throw e.getCause();
+            }
+
+            writer.finish();
+        };
+    }
+
+    private void writeRow(TabularExportWriter writer, ResultSet rs) throws SQLException {
+        try {
+            writer.writeRow(List.of(
+                    rs.getDate("date").toLocalDate().toString(),
+                    nullToEmpty(rs.getString("name")),
+                    nullToEmpty(rs.getString("type")),
+                    Boolean.TRUE.equals(rs.getObject("is_accepted", Boolean.class)) ? "Sim" : "Não",
+                    justificationStatus(rs)
+            ));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String justificationStatus(ResultSet rs) throws SQLException {
+        if (rs.getObject("justification_id") == null) {
+            return "Sem justificativa";
+        }
+        Boolean approved = rs.getObject("is_approved", Boolean.class);
+        if (approved == null) {
+            return "Pendente";
+        }
+        return approved ? "Aprovada" : "Reprovada";
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
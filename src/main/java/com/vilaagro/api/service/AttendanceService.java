@@ -9,17 +9,25 @@ import com.vilaagro.api.repository.JustificationRepository;
 import com.vilaagro.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile; // Import necessário
-import java.io.IOException; // Import necessário
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,16 +40,43 @@ public class AttendanceService {
     private final JustificationRepository justificationRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final FileStorageService fileStorageService;
+    private final AttendanceComplianceService complianceService;
+
+    @Value("${attendance.annex.max-size-bytes:10485760}")
+    private long annexMaxSizeBytes;
+
+    @Value("${attendance.annex.allowed-content-types:application/pdf,image/jpeg,image/png}")
+    private Set<String> annexAllowedContentTypes;
+
+    private static final int DEFAULT_FEED_PAGE_SIZE = 50;
+    private static final int MAX_FEED_PAGE_SIZE = 200;
 
     /**
      * Admin: Registra faltas para múltiplos usuários em uma data (RF-D.6.1)
+     * Carrega usuários e faltas existentes em lote e insere as novas faltas via JDBC batch
      */
     public List<AbsenceResponseDTO> registerAbsences(AbsenceRegisterDTO registerDTO) {
-        List<Absence> createdAbsences = new ArrayList<>();
+        LocalDate date = registerDTO.getDate();
+        Set<UUID> userIds = new LinkedHashSet<>(registerDTO.getUserIds());
 
-        for (UUID userId : registerDTO.getUserIds()) {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", userId));
+        // Uma única consulta IN para todos os usuários
+        Map<UUID, User> usersById = userRepository.findAllById(userIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (UUID userId : userIds) {
+            if (!usersById.containsKey(userId)) {
+                throw new ResourceNotFoundException("Usuário", "id", userId);
+            }
+        }
+
+        // Uma única consulta para as faltas já registradas na data (evita duplicatas)
+        Set<UUID> alreadyAbsent = absenceRepository.findUserIdsWithAbsenceOn(date, userIds);
+
+        List<Absence> newAbsences = new ArrayList<>();
+        for (UUID userId : userIds) {
+            User user = usersById.get(userId);
 
             // RN: Só registra falta para usuários ATIVOS (RF-D.6.1)
             if (user.getDocumentsStatus() != AccountStatus.ACTIVE) {
@@ -49,16 +84,19 @@ public class AttendanceService {
                 continue;
             }
 
-            // Evita duplicatas
-            if (absenceRepository.findByUserIdAndDate(userId, registerDTO.getDate()).isEmpty()) {
-                Absence absence = Absence.builder()
+            if (!alreadyAbsent.contains(userId)) {
+                newAbsences.add(Absence.builder()
                         .user(user)
-                        .date(registerDTO.getDate())
+                        .date(date)
                         .isAccepted(false) // Falta não justificada
-                        .build();
-                createdAbsences.add(absenceRepository.save(absence));
+                        .build());
             }
         }
+
+        // Inserções agrupadas (hibernate.jdbc.batch_size)
+        List<Absence> createdAbsences = absenceRepository.saveAll(newAbsences);
+        complianceService.recordNewAbsences(createdAbsences);
+
         return createdAbsences.stream()
                 .map(AbsenceResponseDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -79,14 +117,38 @@ public class AttendanceService {
     }
 
     /**
-     * Admin: Busca todas as ausências de todos os usuários (RF-D.6.1)
+     * Admin: Feed paginado de ausências de todos os usuários (RF-D.6.1)
+     * Paginação por cursor em (data, id), montada direto em DTOs, sem carregar entidades
      */
     @Transactional(readOnly = true)
-    public List<AbsenceResponseDTO> getAllAbsences() {
-        return absenceRepository.findAllByOrderByDateDesc()
-                .stream()
-                .map(AbsenceResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+    public CursorPageDTO<AbsenceFeedItemDTO> getAbsenceFeed(AbsenceFeedFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+
+        Cursor<LocalDate> position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, LocalDate::parse);
+
+        // Busca um item a mais para saber se existe próxima página
+        List<AbsenceFeedItemDTO> items = absenceRepository.findFeedPage(
+                filter,
+                position != null ? position.position() : null,
+                position != null ? position.id() : null,
+                pageSize + 1
+        );
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            AbsenceFeedItemDTO last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getDate(), last.getId());
+        }
+
+        return CursorPageDTO.<AbsenceFeedItemDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -109,41 +171,60 @@ public class AttendanceService {
             throw new IllegalStateException("Esta ausência já possui uma justificativa.");
         }
 
-        byte[] annexBytes = null;
-        if (file != null && !file.isEmpty()) {
-            try {
-                annexBytes = file.getBytes();
-            } catch (IOException e) {
-                log.error("Erro ao ler bytes do anexo da justificativa", e);
-                throw new RuntimeException("Erro ao processar anexo: " + e.getMessage());
-            }
-        }
-
         JustificationForAbsence justification = JustificationForAbsence.builder()
                 .absence(absence)
                 .description(description)
-                .annex(annexBytes)
                 .isApproved(null) // Pendente de análise
                 .build();
+        attachAnnex(justification, file, currentUser.getId());
 
+        AttendanceComplianceService.AbsenceState before = AttendanceComplianceService.AbsenceState.of(absence);
         JustificationForAbsence saved = justificationRepository.save(justification);
 
         absence.setJustification(saved);
+        complianceService.recordTransition(absence, before);
         AbsenceResponseDTO dto = AbsenceResponseDTO.fromEntity(absence);
         return dto.getJustification();
     }
 
     /**
-     * Admin: Busca todas as justificativas pendentes de análise (RF-D.1.5, RF-D.6.2)
-     *
-     * ESTE É O MÉTODO QUE FALTAVA
+     * Admin: Fila de justificativas pendentes de análise, da mais antiga para a mais recente (RF-D.1.5, RF-D.6.2)
+     * Uma única consulta de projeção por página, paginada por cursor em (createdAt, id)
      */
     @Transactional(readOnly = true)
-    public List<AbsenceResponseDTO> getPendingJustifications() {
-        return justificationRepository.findPendingJustifications()
-                .stream()
-                .map(justification -> AbsenceResponseDTO.fromEntity(justification.getAbsence()))
-                .collect(Collectors.toList());
+    public CursorPageDTO<PendingJustificationDTO> getPendingJustifications(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+
+        List<PendingJustificationDTO> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = justificationRepository.findPendingQueue(firstRows);
+        } else {
+            Cursor<LocalDateTime> position = decodeCursor(cursor, LocalDateTime::parse);
+            items = justificationRepository.findPendingQueueAfter(position.position(), position.id(), firstRows);
+        }
+
+        boolean hasMore = items.size() > pageSize;
+        String nextCursor = null;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+            PendingJustificationDTO last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getJustificationId());
+        }
+
+        return CursorPageDTO.<PendingJustificationDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Admin: Total de justificativas pendentes (mesmo critério da fila e do dashboard)
+     */
+    @Transactional(readOnly = true)
+    public long countPendingJustifications() {
+        return justificationRepository.countByIsApprovedIsNull();
     }
 
     /**
@@ -154,6 +235,7 @@ public class AttendanceService {
                 .orElseThrow(() -> new ResourceNotFoundException("Justificativa", "id", justificationId));
 
         Absence absence = justification.getAbsence();
+        AttendanceComplianceService.AbsenceState before = AttendanceComplianceService.AbsenceState.of(absence);
 
         justification.setIsApproved(reviewDTO.getIsApproved());
         justification.setApprovedByAdminId(adminUser.getId());
@@ -167,15 +249,16 @@ public class AttendanceService {
         }
 
         justificationRepository.save(justification);
+        complianceService.recordTransition(absence, before);
 
         return AbsenceResponseDTO.fromEntity(absence);
     }
 
     /**
-     * Admin/User: Busca os bytes do anexo de uma justificativa
+     * Admin/User: Abre o anexo de uma justificativa para download em streaming
      */
     @Transactional(readOnly = true)
-    public byte[] getJustificationAnnex(UUID justificationId, User currentUser) {
+    public FileDownload getJustificationAnnex(UUID justificationId, User currentUser) {
         JustificationForAbsence justification = justificationRepository.findById(justificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Justificativa2", "id", justificationId));
 
@@ -186,11 +269,68 @@ public class AttendanceService {
             throw new AccessDeniedException("Você não tem permissão para acessar este anexo.");
         }
 
-        if (justification.getAnnex() == null || justification.getAnnex().length == 0) {
+        if (!justification.hasAnnex()) {
             throw new ResourceNotFoundException("Justificativa", "id", justificationId + " (Anexo não encontrado)");
         }
 
-        return justification.getAnnex();
+        return FileDownload.builder()
+                .resource(fileStorageService.loadAsResource(justification.getAnnexPath()))
+                .contentType(justification.getAnnexContentType())
+                .filename(justification.getAnnexOriginalFilename())
+                .size(justification.getAnnexSize())
+                .checksum(justification.getAnnexChecksum())
+                .build();
+    }
+
+    /**
+     * Codifica a posição (chave de ordenação, id) do último item como cursor opaco
+     */
+    private String encodeCursor(Object position, UUID id) {
+        String raw = position + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente
+     */
+    private <T> Cursor<T> decodeCursor(String cursor, Function<String, T> positionParser) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new Cursor<>(positionParser.apply(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Posição (chave de ordenação, id) do último item entregue em uma página
+     */
+    private record Cursor<T>(T position, UUID id) {
+    }
+
+    /**
+     * Valida e grava o anexo em staging (fora da linha da justificativa) e preenche seus metadados
+     * O tipo vem dos bytes do arquivo, não do cliente; o arquivo só é publicado após o commit
+     * e é descartado se a transação for desfeita
+     */
+    private void attachAnnex(JustificationForAbsence justification, MultipartFile file, UUID userId) {
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+
+        StagedFile staged = fileStorageService.stageUpload(
+                file, "annexes/" + userId, annexMaxSizeBytes, annexAllowedContentTypes, null);
+        fileStorageService.promoteAfterCommit(staged);
+
+        justification.setAnnexPath(staged.getPath());
+        justification.setAnnexContentType(staged.getContentType());
+        justification.setAnnexSize(staged.getSize());
+        justification.setAnnexChecksum(staged.getChecksum());
+        justification.setAnnexOriginalFilename(staged.getOriginalFilename());
     }
 
     public AbsenceResponseDTO notifyAbsence(UUID userId, AbsenceNotificationDTO notificationDTO) {
@@ -217,6 +357,8 @@ public class AttendanceService {
                 .isApproved(null) // PENDENTE de análise do Admin (RN-C.3.3)
                 .build();
         JustificationForAbsence savedJustification = justificationRepository.save(justification);
+        savedAbsence.setJustification(savedJustification);
+        complianceService.recordNewAbsences(List.of(savedAbsence));
 
         return AbsenceResponseDTO.fromEntity(savedAbsence);
     }
@@ -246,17 +388,6 @@ public class AttendanceService {
             throw new IllegalStateException("Já existe uma falta registrada ou notificada para esta data.");
         }
 
-        // Processa anexo se fornecido
-        byte[] annexBytes = null;
-        if (file != null && !file.isEmpty()) {
-            try {
-                annexBytes = file.getBytes();
-            } catch (IOException e) {
-                log.error("Erro ao ler bytes do anexo", e);
-                throw new RuntimeException("Erro ao processar anexo: " + e.getMessage());
-            }
-        }
-
         // Cria a Ausência com tipo NOTIFIED (avisada previamente)
         Absence absence = Absence.builder()
                 .user(user)
@@ -270,93 +401,32 @@ public class AttendanceService {
         JustificationForAbsence justification = JustificationForAbsence.builder()
                 .absence(savedAbsence)
                 .description(reason)
-                .annex(annexBytes)
                 .isApproved(null)
                 .build();
-        justificationRepository.save(justification);
+        attachAnnex(justification, file, userId);
+        savedAbsence.setJustification(justificationRepository.save(justification));
+        complianceService.recordNewAbsences(List.of(savedAbsence));
 
         return AbsenceResponseDTO.fromEntity(savedAbsence);
     }
 
     /**
      * Comerciante: Obtém um resumo da sua frequência
-     * (Novo método do seu AttendanceController)
+     * Lê o agregado mantido pelo AttendanceComplianceService (uma leitura por chave primária)
      * (RF-C.1.3)
      */
     @Transactional(readOnly = true)
     public AttendanceSummaryDTO getAttendanceSummary(UUID userId) {
-        List<Absence> absences = absenceRepository.findByUserIdOrderByDateDesc(userId);
-
-        long total = absences.size();
-
-        long justified = absences.stream()
-                .filter(a -> Boolean.TRUE.equals(a.getIsAccepted()))
-                .count();
-
-        long pending = absences.stream()
-                .filter(a -> a.getJustification() != null && a.getJustification().getIsApproved() == null)
-                .count();
-
-        long unjustified = total - justified - pending;
-
-        // Calcula faltas consecutivas (apenas não justificadas)
-        long consecutiveAbsences = calculateConsecutiveAbsences(absences);
+        AttendanceCompliance compliance = complianceService.getOrCompute(userId);
 
         // Verifica conformidade: < 3 consecutivas E < 6 no ano
-        boolean isCompliant = consecutiveAbsences < 3 && unjustified < 6;
-
         return AttendanceSummaryDTO.builder()
-                .totalAbsences(total)
-                .justifiedAbsences(justified)
-                .pendingJustifications(pending)
-                .unjustifiedAbsences(unjustified)
-                .consecutiveAbsences(consecutiveAbsences)
-                .isCompliant(isCompliant)
+                .totalAbsences(compliance.getTotalAbsences())
+                .justifiedAbsences(compliance.getJustifiedAbsences())
+                .pendingJustifications(compliance.getPendingJustifications())
+                .unjustifiedAbsences(compliance.getUnjustifiedAbsences())
+                .consecutiveAbsences(compliance.getConsecutiveAbsences())
+                .isCompliant(complianceService.isCompliant(compliance))
                 .build();
     }
-
-    /**
-     * Calcula o número de faltas consecutivas não justificadas
-     */
-    private long calculateConsecutiveAbsences(List<Absence> absences) {
-        if (absences.isEmpty()) {
-            return 0;
-        }
-
-        // Ordena por data (mais recente primeiro)
-        List<Absence> sortedAbsences = absences.stream()
-                .sorted(Comparator.comparing(Absence::getDate).reversed())
-                .collect(Collectors.toList());
-
-        long maxConsecutive = 0;
-        long currentConsecutive = 0;
-        LocalDate previousDate = null;
-
-        for (Absence absence : sortedAbsences) {
-            // Apenas conta faltas não justificadas
-            if (Boolean.TRUE.equals(absence.getIsAccepted())) {
-                currentConsecutive = 0;
-                previousDate = absence.getDate();
-                continue;
-            }
-
-            if (previousDate == null) {
-                currentConsecutive = 1;
-            } else {
-                // Verifica se é consecutiva (assumindo feiras semanais)
-                long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(absence.getDate(), previousDate);
-                if (daysBetween >= 1 && daysBetween <= 14) { // Até 2 semanas de diferença
-                    currentConsecutive++;
-                } else {
-                    currentConsecutive = 1;
-                }
-            }
-
-            maxConsecutive = Math.max(maxConsecutive, currentConsecutive);
-            previousDate = absence.getDate();
-        }
-
-        return maxConsecutive;
-    }
 }
-
@@ -2,8 +2,7 @@ package com.vilaagro.api.service;
 
 import com.vilaagro.api.dto.AttractionCreateDTO;
 import com.vilaagro.api.dto.AttractionResponseDTO;
-import com.vilaagro.api.dto.ArtistResponseDTO; // DTO que criamos
-import com.vilaagro.api.dto.FairResponseDTO;
+import com.vilaagro.api.dto.AttractionRowDTO;
 import com.vilaagro.api.exception.ResourceNotFoundException;
 import com.vilaagro.api.model.Artist;
 import com.vilaagro.api.model.Attraction;
@@ -29,6 +28,7 @@ public class AttractionService {
     private final AttractionRepository attractionRepository;
     private final FairRepository fairRepository;
     private final ArtistRepository artistRepository;
+    private final PublicResponseCache publicResponseCache;
 
     /**
      * Cria uma nova atração (agendamento)
@@ -51,6 +51,7 @@ public class AttractionService {
 
         // 3. Salvar
         Attraction savedAttraction = attractionRepository.save(attraction);
+        publicResponseCache.invalidateAll();
 
         // 4. Retornar
         //    *** ESTA É A CORREÇÃO ***
@@ -85,6 +86,7 @@ public class AttractionService {
 
         // 4. Salvar
         Attraction updatedAttraction = attractionRepository.save(attraction);
+        publicResponseCache.invalidateAll();
 
         // 5. Retornar
         //    *** ESTA É A CORREÇÃO ***
@@ -95,22 +97,17 @@ public class AttractionService {
 
     @Transactional(readOnly = true)
     public List<AttractionResponseDTO> getAllAttractions() {
-        return attractionRepository.findAll().stream()
-                //    *** ESTA É A CORREÇÃO ***
-                .map(AttractionResponseDTO::fromEntity)
+        // Uma única consulta com feira e artista projetados (sem N+1 e sem ler os banners)
+        return attractionRepository.findAllRows().stream()
+                .map(AttractionRowDTO::toResponseDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<AttractionResponseDTO> getUpcomingAttractions() {
-        // Busca feiras futuras e, a partir delas, as atrações
-        LocalDate today = LocalDate.now();
-        List<Fair> upcomingFairs = fairRepository.findByDateGreaterThanEqualOrderByDateAsc(today);
-
-        return upcomingFairs.stream()
-                .flatMap(fair -> fair.getAttractions().stream()) // Pega as atrações de cada feira
-                //    *** ESTA É A CORREÇÃO ***
-                .map(AttractionResponseDTO::fromEntity)
+        // Atrações das feiras a partir de hoje, ordenadas por data da feira e horário
+        return attractionRepository.findRowsFromDate(LocalDate.now()).stream()
+                .map(AttractionRowDTO::toResponseDTO)
                 .collect(Collectors.toList());
     }
 
@@ -121,6 +118,7 @@ public class AttractionService {
             throw new ResourceNotFoundException("Atração", "id", id);
         }
         attractionRepository.deleteById(id);
+        publicResponseCache.invalidateAll();
     }
 
 
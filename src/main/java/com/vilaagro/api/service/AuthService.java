@@ -8,6 +8,7 @@ import com.vilaagro.api.dto.UserResponseDTO;
 import com.vilaagro.api.exception.EmailAlreadyExistsException;
 import com.vilaagro.api.model.User;
 import com.vilaagro.api.repository.UserRepository;
+import com.vilaagro.api.security.LoginThrottle;
 import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +28,8 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.UUID;
+
 /**
  * Serviço responsável pela lógica de autenticação
  * Gerencia registro, login, logout e refresh de tokens
@@ -43,6 +46,8 @@ public class AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
 
     @Value("${jwt.access-token.expiration}")
     private long accessTokenExpiration;
@@ -85,6 +90,9 @@ public class AuthService {
      * Autentica um usuário existente
      */
     public UserResponseDTO authenticateUser(LoginRequestDTO loginRequest, HttpServletResponse response) {
+        // Recusa cedo tentativas acima do limite, antes de qualquer verificação BCrypt
+        loginThrottle.checkAttempt(loginRequest.getEmail(), currentRequest().getRemoteAddr());
+
         try {
             // Autentica usando o AuthenticationManager
             Authentication authentication = authenticationManager.authenticate(
@@ -112,9 +120,22 @@ public class AuthService {
     }
 
     /**
-     * Realiza logout limpando os cookies
+     * Realiza logout revogando a sessão do refresh token e limpando os cookies
      */
     public void logoutUser(HttpServletResponse response) {
+        // Revoga a família do refresh token atual, se houver
+        String refreshToken = extractTokenFromRequest("refreshToken");
+        if (refreshToken != null) {
+            try {
+                VerifiedToken verified = jwtService.verify(refreshToken);
+                if (verified.isRefreshToken() && verified.getFamilyId() != null) {
+                    refreshTokenService.revokeFamily(UUID.fromString(verified.getFamilyId()));
+                }
+            } catch (Exception e) {
+                log.debug("Refresh token inválido no logout: {}", e.getMessage());
+            }
+        }
+
         // Remove o cookie do access token
         Cookie accessTokenCookie = createCookie("accessToken", "", 0, true, true);
         response.addCookie(accessTokenCookie);
@@ -138,22 +159,28 @@ public class AuthService {
         }
 
         try {
+            // Verifica o refresh token uma única vez
+            VerifiedToken verified = jwtService.verify(refreshToken);
+
             // Valida se é um refresh token
-            if (!jwtService.isRefreshToken(refreshToken)) {
+            if (!verified.isRefreshToken()) {
                 throw new BadCredentialsException("Token fornecido não é um refresh token");
             }
 
             // Extrai o email do refresh token
-            String userEmail = jwtService.extractUsername(refreshToken);
+            String userEmail = verified.getSubject();
 
             // Carrega os detalhes do usuário
             CustomUserPrincipal userPrincipal = (CustomUserPrincipal) userDetailsService.loadUserByUsername(userEmail);
 
             // Valida o refresh token
-            if (!jwtService.isTokenValid(refreshToken, userPrincipal)) {
+            if (!jwtService.isTokenValid(verified, userPrincipal)) {
                 throw new BadCredentialsException("Refresh token inválido");
             }
 
+            // Troca o refresh token por um novo (uso único) antes de emitir o access token
+            String newRefreshToken = refreshTokenService.rotate(verified, userPrincipal);
+
             // Gera novo access token
             String newAccessToken = jwtService.generateAccessToken(
                     userPrincipal,
@@ -161,11 +188,16 @@ public class AuthService {
                     userPrincipal.getUserType()
             );
 
-            // Define o novo access token no cookie
+            // Define os novos tokens nos cookies
             Cookie accessTokenCookie = createCookie("accessToken", newAccessToken,
                     (int) (accessTokenExpiration / 1000), true, true);
             response.addCookie(accessTokenCookie);
 
+            // Mesmos atributos do cookie emitido no login, para que o navegador substitua o anterior
+            Cookie refreshTokenCookie = createCookie("refreshToken", newRefreshToken,
+                    (int) (refreshTokenExpiration / 1000), true, false);
+            response.addCookie(refreshTokenCookie);
+
             log.info("Access token renovado com sucesso para usuário: {}", userEmail);
 
         } catch (Exception e) {
@@ -209,8 +241,8 @@ public class AuthService {
             // Gera access token
             String accessToken = jwtService.generateAccessToken(userPrincipal, userId, userType);
 
-            // Gera refresh token
-            String refreshToken = jwtService.generateRefreshToken(userPrincipal);
+            // Gera refresh token (registrado no servidor como início de uma nova sessão)
+            String refreshToken = refreshTokenService.issue(userPrincipal);
 
             // Cria cookies seguros HttpOnly (Secure=false para desenvolvimento local)
             Cookie accessTokenCookie = createCookie("accessToken", accessToken,
@@ -248,8 +280,7 @@ public class AuthService {
      * Extrai um token específico dos cookies da requisição atual
      */
     private String extractTokenFromRequest(String cookieName) {
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-        HttpServletRequest request = attributes.getRequest();
+        HttpServletRequest request = currentRequest();
 
         if (request.getCookies() != null) {
             for (Cookie cookie : request.getCookies()) {
@@ -261,6 +292,14 @@ public class AuthService {
         return null;
     }
 
+    /**
+     * Obtém a requisição HTTP atual
+     */
+    private HttpServletRequest currentRequest() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        return attributes.getRequest();
+    }
+
     /**
      * Atualiza o perfil do usuário autenticado (nome e email)
      */
@@ -279,6 +318,7 @@ public class AuthService {
 
             // Salva as alterações
             User updatedUser = userRepository.save(user);
+            userDetailsService.evictUser(updatedUser.getId());
 
             log.info("Perfil atualizado com sucesso para usuário: {}", updatedUser.getEmail());
             return userService.convertToResponseDTO(updatedUser);
@@ -305,6 +345,10 @@ public class AuthService {
 
             // Salva as alterações
             userRepository.save(user);
+            userDetailsService.evictUser(user.getId());
+
+            // Encerra todas as sessões abertas com a senha antiga
+            refreshTokenService.revokeAllForUser(user.getId());
 
             log.info("Senha atualizada com sucesso para usuário: {}", user.getEmail());
 
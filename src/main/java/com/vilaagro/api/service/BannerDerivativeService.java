@@ -0,0 +1,357 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.exception.ResourceNotFoundException;
+import com.vilaagro.api.model.Artist;
+import com.vilaagro.api.model.ArtistBannerVariant;
+import com.vilaagro.api.model.ImageVariant;
+import com.vilaagro.api.repository.ArtistBannerVariantRepository;
+import com.vilaagro.api.repository.ArtistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gera as versões redimensionadas (thumb, medium, full) dos banners de artistas
+ * A geração roda após o commit do upload, em um pool pequeno e limitado; com a fila cheia
+ * a tarefa é descartada e refeita no primeiro acesso a uma variante que estiver faltando.
+ * Enquanto a variante não existe, o download serve o arquivo original.
+ */
+@Service
+@Slf4j
+public class BannerDerivativeService {
+
+    private static final String JPEG = "image/jpeg";
+    private static final String PNG = "image/png";
+
+    private final ArtistRepository artistRepository;
+    private final ArtistBannerVariantRepository variantRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+    private final float jpegQuality;
+
+    // Gerações em andamento (artista:checksum do original), para não enfileirar a mesma duas vezes
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer generationTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    /**
+     * Variante já codificada, pronta para gravar
+     */
+    private record Encoded(byte[] data, String contentType, int width, int height) {
+    }
+
+    public BannerDerivativeService(
+            ArtistRepository artistRepository,
+            ArtistBannerVariantRepository variantRepository,
+            BlobStore blobStore,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${artist.banner.derivatives.threads:1}") int threads,
+            @Value("${artist.banner.derivatives.queue-capacity:32}") int queueCapacity,
+            @Value("${artist.banner.derivatives.max-pixels:40000000}") long maxPixels,
+            @Value("${artist.banner.derivatives.jpeg-quality:0.82}") float jpegQuality
+    ) {
+        this.artistRepository = artistRepository;
+        this.variantRepository = variantRepository;
+        this.blobStore = blobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPixels = maxPixels;
+        this.jpegQuality = jpegQuality;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("banner-derivatives-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.generationTimer = Timer.builder("artist.banner.derivatives")
+                .description("Tempo para gerar as variantes de um banner")
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("artist.banner.derivatives.rejected");
+        this.failedCounter = meterRegistry.counter("artist.banner.derivatives.failed");
+        Gauge.builder("artist.banner.derivatives.queue.size", executor, e -> e.getQueue().size())
+                .description("Banners aguardando geração de variantes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agenda a geração para depois do commit da transação atual (ou imediatamente, fora de transação)
+     */
+    public void scheduleAfterCommit(UUID artistId, String sourceChecksum) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(artistId, sourceChecksum);
+                }
+            });
+        } else {
+            schedule(artistId, sourceChecksum);
+        }
+    }
+
+    /**
+     * Variante pronta do banner atual do artista
+     * Se estiver faltando (ou for de um banner anterior), agenda a geração e retorna vazio
+     */
+    public Optional<BlobInfo> findVariant(Artist artist, ImageVariant variant) {
+        Optional<BlobInfo> blob = variantRepository.findByArtistIdAndVariant(artist.getId(), variant)
+                .filter(v -> v.getSourceChecksum().equals(artist.getBannerChecksum()))
+                .flatMap(v -> blobStore.stat(v.getChecksum()));
+
+        if (blob.isEmpty() && artist.getBannerWidth() != null) {
+            schedule(artist.getId(), artist.getBannerChecksum());
+        }
+        return blob;
+    }
+
+    /**
+     * Remove as variantes do artista e as referências delas no BlobStore (na transação atual)
+     */
+    public void deleteVariants(UUID artistId) {
+        List<String> checksums = variantRepository.findChecksumsByArtistId(artistId);
+        variantRepository.deleteByArtistId(artistId);
+        checksums.forEach(blobStore::release);
+    }
+
+    private void schedule(UUID artistId, String sourceChecksum) {
+        String key = artistId + ":" + sourceChecksum;
+        if (!inFlight.add(key)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generationTimer.record(() -> generate(artistId, sourceChecksum));
+                } catch (RuntimeException e) {
+                    failedCounter.increment();
+                    log.warn("Erro ao gerar variantes do banner do artista {}: {}", artistId, e.getMessage());
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            rejectedCounter.increment();
+            log.warn("Fila de variantes de banner cheia; artista {} será processado no próximo acesso", artistId);
+        }
+    }
+
+    private void generate(UUID artistId, String sourceChecksum) {
+        byte[] source;
+        try (InputStream in = blobStore.open(sourceChecksum).getInputStream()) {
+            source = in.readAllBytes();
+        } catch (ResourceNotFoundException e) {
+            // Banner trocado ou removido antes da geração
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        BufferedImage image = decode(source, artistId);
+        if (image == null) {
+            return;
+        }
+
+        ImageMetadata original;
+        try {
+            original = ImageMetadata.of(source);
+        } catch (IllegalArgumentException e) {
+            log.debug("Banner do artista {} em formato não suportado, sem variantes", artistId);
+            return;
+        }
+
+        // Imagens com transparência viram PNG; as demais, JPEG (o ImageIO do JDK não escreve WebP)
+        boolean alpha = image.getColorModel().hasAlpha();
+        Map<ImageVariant, Encoded> encoded = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scaleToWidth(image, variant.getMaxWidth(), alpha);
+            Encoded result = alpha ? encodePng(scaled) : encodeJpeg(scaled);
+
+            // Sem redução, recodificar só aumentaria o arquivo: reaproveita o original no mesmo formato
+            boolean sameSize = result.width() == original.getWidth() && result.height() == original.getHeight();
+            if (sameSize && result.contentType().equals(original.getContentType()) && result.data().length >= source.length) {
+                result = new Encoded(source, original.getContentType(), result.width(), result.height());
+            }
+            encoded.put(variant, result);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> save(artistId, sourceChecksum, encoded));
+    }
+
+    /**
+     * Decodifica o original, já reduzido por amostragem quando for muito maior que a maior variante
+     */
+    private BufferedImage decode(byte[] source, UUID artistId) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.debug("Banner do artista {} não é uma imagem reconhecida, sem variantes", artistId);
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Banner do artista {} tem {}x{} pixels, acima do limite; variantes não geradas",
+                            artistId, width, height);
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (ImageVariant.FULL.getMaxWidth() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao decodificar banner do artista {}: {}", artistId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reduz a imagem para a largura máxima (nunca amplia), em etapas de metade para preservar a qualidade
+     * Sempre devolve uma cópia em RGB/ARGB, que os codificadores aceitam sem conversão
+     */
+    private BufferedImage scaleToWidth(BufferedImage source, int maxWidth, boolean alpha) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private Encoded encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao codificar JPEG", e);
+        } finally {
+            writer.dispose();
+        }
+        return new Encoded(output.toByteArray(), JPEG, image.getWidth(), image.getHeight());
+    }
+
+    private Encoded encodePng(BufferedImage image) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", output);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao codificar PNG", e);
+        }
+        return new Encoded(output.toByteArray(), PNG, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Substitui as variantes do artista, desde que o banner não tenha sido trocado durante a geração
+     */
+    private void save(UUID artistId, String sourceChecksum, Map<ImageVariant, Encoded> encoded) {
+        Artist artist = artistRepository.findById(artistId).orElse(null);
+        if (artist == null || !sourceChecksum.equals(artist.getBannerChecksum())) {
+            return;
+        }
+
+        List<String> previous = variantRepository.findChecksumsByArtistId(artistId);
+        variantRepository.deleteByArtistId(artistId);
+
+        encoded.forEach((variant, image) -> {
+            // Endereçado pelo conteúdo: variantes idênticas (de qualquer artista) compartilham o mesmo arquivo
+            BlobInfo blob = blobStore.put(image.data(), image.contentType());
+            variantRepository.save(ArtistBannerVariant.builder()
+                    .artistId(artistId)
+                    .variant(variant)
+                    .checksum(blob.getChecksum())
+                    .sourceChecksum(sourceChecksum)
+                    .width(image.width())
+                    .height(image.height())
+                    .build());
+        });
+
+        // Referências novas já foram adicionadas: conteúdos compartilhados com as antigas permanecem
+        previous.forEach(blobStore::release);
+        log.debug("Variantes do banner do artista {} geradas", artistId);
+    }
+}
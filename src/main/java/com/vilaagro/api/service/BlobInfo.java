@@ -0,0 +1,19 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Metadados de um conteúdo gravado no BlobStore
+ */
+@Value
+@Builder
+public class BlobInfo {
+
+    String checksum;
+    long size;
+    String contentType;
+    Instant createdAt;
+}
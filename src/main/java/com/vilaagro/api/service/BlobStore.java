@@ -0,0 +1,44 @@
+package com.vilaagro.api.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Armazenamento de conteúdo binário endereçado pelo SHA-256
+ * Conteúdos idênticos são gravados uma única vez; cada {@link #put} ou {@link #retain} adiciona
+ * uma referência e cada {@link #release} remove uma. Sem referências, o conteúdo é apagado
+ * após o commit da transação.
+ */
+public interface BlobStore {
+
+    /**
+     * Grava o conteúdo (se ainda não existir) e adiciona uma referência a ele
+     */
+    BlobInfo put(InputStream content, String contentType);
+
+    default BlobInfo put(byte[] content, String contentType) {
+        return put(new ByteArrayInputStream(content), contentType);
+    }
+
+    /**
+     * Adiciona uma referência a um conteúdo já gravado
+     */
+    void retain(String checksum);
+
+    /**
+     * Remove uma referência; o conteúdo sem referências é apagado após o commit
+     */
+    void release(String checksum);
+
+    Optional<BlobInfo> stat(String checksum);
+
+    /**
+     * Abre o conteúdo para leitura em streaming (sem carregá-lo na memória)
+     *
+     * @throws com.vilaagro.api.exception.ResourceNotFoundException se o conteúdo não existir
+     */
+    Resource open(String checksum);
+}
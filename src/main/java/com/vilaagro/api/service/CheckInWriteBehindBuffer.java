@@ -0,0 +1,262 @@
+package com.vilaagro.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vilaagro.api.model.FairCheckIn;
+import com.vilaagro.api.repository.FairCheckInRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de gravação tardia (write-behind) dos check-ins de feira
+ * A requisição só enfileira o check-in em memória; uma thread dedicada grava em lotes
+ * a cada {@code flushIntervalMs}. A fila é limitada: cheia, o check-in é recusado (429)
+ * em vez de acumular memória. {@link #flush()} funciona como barreira de durabilidade:
+ * ao retornar, tudo o que foi enfileirado antes da chamada já está no banco.
+ * {@link #closeFair} fecha a entrada de uma feira antes dessa barreira: nenhum check-in
+ * dela é aceito depois, então a apuração feita após o flush vê todos os confirmados.
+ */
+@Component
+@Slf4j
+public class CheckInWriteBehindBuffer {
+
+    private final FairCheckInRepository checkInRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<FairCheckIn> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean backgroundFlush;
+
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("checkin-flush-"));
+
+    // Lote que falhou ao gravar; é tentado de novo antes dos próximos (acesso sob flushLock)
+    private final List<FairCheckIn> failedBatch = new ArrayList<>();
+    private final Object flushLock = new Object();
+
+    // Feiras em encerramento ou encerradas; offer usa a leitura, closeFair a escrita
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Cache<UUID, Boolean> closedFairs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private final Counter persistedCounter;
+    private final Counter failedCounter;
+
+    public CheckInWriteBehindBuffer(
+            FairCheckInRepository checkInRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${fair.check-in.queue-capacity:10000}") int queueCapacity,
+            @Value("${fair.check-in.batch-size:200}") int batchSize,
+            @Value("${fair.check-in.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${scheduling.enabled:true}") boolean backgroundFlush
+    ) {
+        this.checkInRepository = checkInRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Cada lote em transação própria: flush() chamado dentro de outra transação (encerramento da feira)
+        // não pode ter os check-ins desfeitos nem a transação externa marcada para rollback por um duplicado
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.backgroundFlush = backgroundFlush;
+
+        this.persistedCounter = meterRegistry.counter("fair.checkin.persisted");
+        this.failedCounter = meterRegistry.counter("fair.checkin.flush.failed");
+        Gauge.builder("fair.checkin.queue.size", queue, BlockingQueue::size)
+                .description("Check-ins aguardando gravação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Com scheduling.enabled=false (perfil de testes) só grava nas chamadas explícitas a {@link #flush()}
+     */
+    @PostConstruct
+    void start() {
+        if (!backgroundFlush) {
+            return;
+        }
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Grava o que restar na fila antes de desligar a aplicação
+     */
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Enfileira um check-in para gravação
+     *
+     * @return false se a fila estiver cheia (o chamador deve pedir para o cliente tentar de novo)
+     * @throws IllegalArgumentException se a feira já estiver em encerramento
+     */
+    public boolean offer(FairCheckIn checkIn) {
+        closeLock.readLock().lock();
+        try {
+            if (closedFairs.getIfPresent(checkIn.getFairId()) != null) {
+                throw new IllegalArgumentException("A feira não está aberta para check-in.");
+            }
+            return queue.offer(checkIn);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passa a recusar check-ins da feira; ao retornar, todos os aceitos antes já estão na fila
+     */
+    public void closeFair(UUID fairId) {
+        closeLock.writeLock().lock();
+        try {
+            closedFairs.put(fairId, Boolean.TRUE);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Volta a aceitar check-ins da feira (encerramento desfeito)
+     */
+    public void reopenFair(UUID fairId) {
+        closedFairs.invalidate(fairId);
+    }
+
+    /**
+     * Barreira de durabilidade: grava imediatamente tudo o que está pendente
+     *
+     * @throws IllegalStateException se algum lote não puder ser gravado
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            drainAndWrite();
+            if (!failedBatch.isEmpty()) {
+                throw new IllegalStateException("Não foi possível gravar " + failedBatch.size() + " check-in(s) pendente(s)");
+            }
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            synchronized (flushLock) {
+                drainAndWrite();
+            }
+        } catch (RuntimeException e) {
+            // Não deixa a exceção cancelar o agendamento
+            log.error("Erro ao gravar check-ins: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Grava o lote que falhou antes (se houver) e depois esvazia a fila em lotes de {@code batchSize}
+     */
+    private void drainAndWrite() {
+        if (!failedBatch.isEmpty()) {
+            List<FairCheckIn> retry = new ArrayList<>(failedBatch);
+            failedBatch.clear();
+            writeBatch(retry);
+            if (!failedBatch.isEmpty()) {
+                return;
+            }
+        }
+
+        List<FairCheckIn> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            if (!failedBatch.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void writeBatch(List<FairCheckIn> batch) {
+        try {
+            int written = transactionTemplate.execute(status -> insertNew(batch));
+            persistedCounter.increment(written);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância gravou algum dos check-ins ao mesmo tempo: grava um a um, ignorando duplicados
+            batch.forEach(this::writeSingle);
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.error("Falha ao gravar lote de {} check-in(s), nova tentativa no próximo ciclo: {}",
+                    batch.size(), e.getMessage());
+            failedBatch.addAll(batch);
+        }
+    }
+
+    private void writeSingle(FairCheckIn checkIn) {
+        try {
+            int written = transactionTemplate.execute(status -> insertNew(List.of(checkIn)));
+            persistedCounter.increment(written);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Check-in já gravado: feira {} usuário {}", checkIn.getFairId(), checkIn.getUserId());
+        } catch (RuntimeException e) {
+            // Check-in já confirmado ao cliente: volta para a próxima tentativa em vez de ser perdido
+            failedCounter.increment();
+            log.error("Falha ao gravar check-in da feira {} usuário {}, nova tentativa no próximo ciclo: {}",
+                    checkIn.getFairId(), checkIn.getUserId(), e.getMessage());
+            failedBatch.add(checkIn);
+        }
+    }
+
+    /**
+     * Insere apenas os check-ins que ainda não estão no banco (uma consulta por feira do lote)
+     */
+    private int insertNew(List<FairCheckIn> batch) {
+        // Remove duplicados dentro do próprio lote, mantendo o primeiro recebido
+        Map<String, FairCheckIn> unique = new LinkedHashMap<>();
+        batch.forEach(checkIn -> unique.putIfAbsent(checkIn.getFairId() + ":" + checkIn.getUserId(), checkIn));
+
+        Map<UUID, List<FairCheckIn>> byFair = unique.values().stream()
+                .collect(Collectors.groupingBy(FairCheckIn::getFairId));
+
+        List<FairCheckIn> toInsert = new ArrayList<>();
+        byFair.forEach((fairId, checkIns) -> {
+            Set<UUID> existing = checkInRepository.findExistingUserIds(
+                    fairId, checkIns.stream().map(FairCheckIn::getUserId).collect(Collectors.toList()));
+            checkIns.stream()
+                    .filter(checkIn -> !existing.contains(checkIn.getUserId()))
+                    .forEach(toInsert::add);
+        });
+
+        // Uma tentativa anterior que falhou pode ter atribuído id; sem ele o save volta a ser um insert
+        toInsert.forEach(checkIn -> checkIn.setId(null));
+
+        // Inserções agrupadas (hibernate.jdbc.batch_size)
+        checkInRepository.saveAll(toInsert);
+        checkInRepository.flush();
+        return toInsert.size();
+    }
+}
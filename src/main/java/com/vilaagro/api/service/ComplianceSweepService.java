@@ -0,0 +1,278 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.AttendanceCompliance;
+import com.vilaagro.api.model.JobCheckpoint;
+import com.vilaagro.api.model.Notification;
+import com.vilaagro.api.model.NotificationType;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.repository.AttendanceComplianceRepository;
+import com.vilaagro.api.repository.JobCheckpointRepository;
+import com.vilaagro.api.repository.NotificationRepository;
+import com.vilaagro.api.repository.UserRepository;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Varredura periódica da regra de frequência (< 3 faltas consecutivas e < 6 não justificadas no ano)
+ * Percorre os comerciantes ATIVOS em lotes por id, avalia o agregado de frequência de cada um
+ * e gera notificações ABSENCE para quem passou a descumprir a regra.
+ * Cada lote roda em transação própria e grava um checkpoint, então uma execução interrompida
+ * continua de onde parou; a trava no banco garante que só uma instância execute por vez.
+ */
+@Service
+@Slf4j
+public class ComplianceSweepService {
+
+    static final String JOB_NAME = "attendance-compliance-sweep";
+
+    private static final int MAX_CHUNK_RETRIES = 3;
+
+    private final UserRepository userRepository;
+    private final AttendanceComplianceRepository complianceRepository;
+    private final AttendanceComplianceService complianceService;
+    private final NotificationRepository notificationRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final SchedulerLockService lockService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final Duration lockAtMostFor;
+
+    public ComplianceSweepService(
+            UserRepository userRepository,
+            AttendanceComplianceRepository complianceRepository,
+            AttendanceComplianceService complianceService,
+            NotificationRepository notificationRepository,
+            JobCheckpointRepository checkpointRepository,
+            SchedulerLockService lockService,
+            PlatformTransactionManager transactionManager,
+            @Value("${attendance.compliance-sweep.chunk-size:200}") int chunkSize,
+            @Value("${attendance.compliance-sweep.lock-minutes:30}") long lockMinutes
+    ) {
+        this.userRepository = userRepository;
+        this.complianceRepository = complianceRepository;
+        this.complianceService = complianceService;
+        this.notificationRepository = notificationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.lockService = lockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.lockAtMostFor = Duration.ofMinutes(lockMinutes);
+    }
+
+    /**
+     * Resultado de uma execução da varredura
+     */
+    @lombok.Value
+    @Builder
+    public static class SweepResult {
+        boolean executed;
+        int processedUsers;
+        int flaggedUsers;
+        int clearedUsers;
+    }
+
+    /**
+     * Execução agendada (padrão: diariamente às 4h)
+     */
+    @Scheduled(cron = "${attendance.compliance-sweep.cron:0 0 4 * * *}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    /**
+     * Executa a varredura se este nó conseguir a trava; caso contrário não faz nada
+     */
+    public SweepResult sweep() {
+        if (!lockService.tryAcquire(JOB_NAME, lockAtMostFor)) {
+            log.info("Varredura de frequência já em execução em outra instância");
+            return SweepResult.builder().executed(false).build();
+        }
+
+        int processed = 0;
+        int flagged = 0;
+        int cleared = 0;
+
+        try {
+            UUID lastId = loadCheckpoint();
+            if (lastId != null) {
+                log.info("Retomando varredura de frequência após o usuário {}", lastId);
+            }
+
+            int retries = 0;
+            while (true) {
+                ChunkResult chunk;
+                try {
+                    UUID after = lastId;
+                    chunk = transactionTemplate.execute(status -> processChunk(after));
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    // Agregado alterado por outra requisição durante o lote: repete o mesmo lote
+                    if (++retries > MAX_CHUNK_RETRIES) {
+                        throw e;
+                    }
+                    continue;
+                }
+                retries = 0;
+
+                if (chunk == null || chunk.lastId() == null) {
+                    break;
+                }
+
+                lastId = chunk.lastId();
+                processed += chunk.processed();
+                flagged += chunk.flagged();
+                cleared += chunk.cleared();
+
+                if (!lockService.extend(JOB_NAME, lockAtMostFor)) {
+                    log.warn("Trava da varredura de frequência perdida; interrompendo no usuário {}", lastId);
+                    return SweepResult.builder()
+                            .executed(true).processedUsers(processed).flaggedUsers(flagged).clearedUsers(cleared)
+                            .build();
+                }
+            }
+
+            completeCheckpoint();
+            log.info("Varredura de frequência concluída: {} usuário(s), {} notificado(s), {} regularizado(s)",
+                    processed, flagged, cleared);
+        } finally {
+            lockService.release(JOB_NAME);
+        }
+
+        return SweepResult.builder()
+                .executed(true).processedUsers(processed).flaggedUsers(flagged).clearedUsers(cleared)
+                .build();
+    }
+
+    /**
+     * Processa um lote de usuários ativos após {@code afterId} e grava o checkpoint na mesma transação
+     */
+    private ChunkResult processChunk(UUID afterId) {
+        PageRequest firstRows = PageRequest.of(0, chunkSize);
+        List<User> users = afterId == null
+                ? userRepository.findByDocumentsStatusOrderByIdAsc(AccountStatus.ACTIVE, firstRows)
+                : userRepository.findByDocumentsStatusAndIdGreaterThanOrderByIdAsc(AccountStatus.ACTIVE, afterId, firstRows);
+
+        if (users.isEmpty()) {
+            return new ChunkResult(null, 0, 0, 0);
+        }
+
+        // Agregados do lote em uma única consulta; os ausentes ou de outro ano são recalculados
+        Map<UUID, AttendanceCompliance> byUser = complianceRepository
+                .findAllById(users.stream().map(User::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(AttendanceCompliance::getUserId, Function.identity()));
+
+        int currentYear = LocalDate.now().getYear();
+        List<Notification> notifications = new ArrayList<>();
+        List<AttendanceCompliance> changed = new ArrayList<>();
+        int cleared = 0;
+
+        for (User user : users) {
+            AttendanceCompliance compliance = byUser.get(user.getId());
+            if (compliance == null || compliance.getReferenceYear() != currentYear) {
+                compliance = complianceService.recompute(user.getId());
+            }
+
+            boolean compliant = complianceService.isCompliant(compliance);
+            boolean alreadyFlagged = Boolean.TRUE.equals(compliance.getFlagged());
+
+            if (!compliant && !alreadyFlagged) {
+                compliance.setFlagged(true);
+                compliance.setFlaggedAt(LocalDateTime.now());
+                changed.add(compliance);
+                notifications.add(buildNotification(user, compliance));
+            } else if (compliant && alreadyFlagged) {
+                compliance.setFlagged(false);
+                compliance.setFlaggedAt(null);
+                changed.add(compliance);
+                cleared++;
+            }
+        }
+
+        // Gravações agrupadas (hibernate.jdbc.batch_size)
+        complianceRepository.saveAll(changed);
+        notificationRepository.saveAll(notifications);
+
+        UUID lastId = users.get(users.size() - 1).getId();
+        saveCheckpoint(lastId.toString());
+
+        return new ChunkResult(lastId, users.size(), notifications.size(), cleared);
+    }
+
+    /**
+     * Notificação para o painel administrativo (o feed de notificações é restrito a administradores)
+     */
+    private Notification buildNotification(User user, AttendanceCompliance compliance) {
+        String message = String.format(
+                "%s está fora da regra de frequência: %d falta(s) consecutiva(s) e %d falta(s) não justificada(s) em %d.",
+                user.getName(),
+                compliance.getConsecutiveAbsences(),
+                compliance.getYearlyUnjustified(),
+                compliance.getReferenceYear()
+        );
+
+        String metadata = String.format(
+                "{\"userId\":\"%s\",\"consecutiveAbsences\":%d,\"yearlyUnjustified\":%d}",
+                user.getId(),
+                compliance.getConsecutiveAbsences(),
+                compliance.getYearlyUnjustified()
+        );
+
+        return Notification.builder()
+                .user(user)
+                .title("Comerciante fora da regra de frequência")
+                .message(message)
+                .type(NotificationType.ABSENCE)
+                .isRead(false)
+                .metadata(metadata)
+                .build();
+    }
+
+    private UUID loadCheckpoint() {
+        return checkpointRepository.findById(JOB_NAME)
+                .map(JobCheckpoint::getLastKey)
+                .map(UUID::fromString)
+                .orElse(null);
+    }
+
+    private void saveCheckpoint(String lastKey) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+        checkpoint.setLastKey(lastKey);
+        checkpointRepository.save(checkpoint);
+    }
+
+    private void completeCheckpoint() {
+        transactionTemplate.executeWithoutResult(status -> {
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+            checkpoint.setLastKey(null);
+            checkpoint.setLastCompletedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Resumo de um lote processado (lastId nulo = não há mais usuários)
+     */
+    private record ChunkResult(UUID lastId, int processed, int flagged, int cleared) {
+    }
+}
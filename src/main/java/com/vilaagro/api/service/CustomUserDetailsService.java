@@ -1,17 +1,26 @@
 package com.vilaagro.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.vilaagro.api.model.User;
 import com.vilaagro.api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.UUID;
 
 /**
  * Implementação personalizada do UserDetailsService do Spring Security
@@ -19,12 +28,33 @@ import java.util.Collections;
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long principalCacheTtlSeconds;
+
+    @Value("${security.principal-cache.max-size:5000}")
+    private long principalCacheMaxSize;
+
+    /**
+     * Cache de usuários autenticados, indexado pelo id
+     * Evita a consulta à tabela users em toda requisição autenticada
+     */
+    private Cache<UUID, User> principalCache;
+
+    @PostConstruct
+    void initPrincipalCache() {
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .build();
+    }
+
     /**
      * Carrega um usuário pelo email (username no contexto do Spring Security)
+     * Sempre consulta o banco, pois é usado na verificação de senha do login
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -34,6 +64,58 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new CustomUserPrincipal(user);
     }
 
+    /**
+     * Regrava o hash da senha quando o custo do BCrypt configurado muda
+     * Chamado pelo DaoAuthenticationProvider após um login bem-sucedido
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((CustomUserPrincipal) userDetails).getUser();
+        user.setPassword(newPassword);
+
+        User saved = userRepository.save(user);
+        evictUser(saved.getId());
+        return new CustomUserPrincipal(saved);
+    }
+
+    /**
+     * Carrega o usuário de um access token já verificado, usando o cache quando possível
+     * O cache é consultado pelo userId do token; o email é conferido para descartar entradas antigas
+     * Em caso de ausência o usuário vem do banco: os serviços usam a entidade completa, que o token não carrega
+     */
+    public CustomUserPrincipal loadCachedPrincipal(String email, String userId) throws UsernameNotFoundException {
+        User cached = userId != null ? principalCache.getIfPresent(UUID.fromString(userId)) : null;
+        if (cached == null || !email.equals(cached.getEmail())) {
+            cached = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com email: " + email));
+            principalCache.put(cached.getId(), cached);
+        }
+
+        // Cada requisição recebe sua própria cópia, já que os serviços alteram a entidade recebida
+        return new CustomUserPrincipal(cached.toBuilder().build());
+    }
+
+    /**
+     * Remove do cache o usuário informado
+     * Dentro de uma transação, a remoção é repetida após o commit para não recarregar dados antigos
+     */
+    public void evictUser(UUID userId) {
+        evictFromCache(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictFromCache(userId);
+                }
+            });
+        }
+    }
+
+    private void evictFromCache(UUID userId) {
+        principalCache.invalidate(userId);
+    }
+
     /**
      * Classe interna que implementa UserDetails para o usuário customizado
      */
@@ -0,0 +1,83 @@
+package com.vilaagro.api.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Assina links de download de documentos com HMAC-SHA256 (id do documento + expiração)
+ * O link pode ser aberto ou pré-carregado pelo navegador sem o cabeçalho Authorization;
+ * vale só para aquele documento e por pouco tempo (documents.signed-url.ttl-seconds).
+ * A chave é documents.signed-url.secret ou, sem ela, uma chave derivada de jwt.secret:
+ * uma assinatura de link nunca serve como assinatura de token e vice-versa.
+ */
+@Component
+public class DocumentDownloadSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String KEY_LABEL = "document-download";
+
+    private final SecretKeySpec key;
+    @Getter
+    private final Duration ttl;
+
+    public DocumentDownloadSigner(
+            @Value("${documents.signed-url.secret:}") String secret,
+            @Value("${jwt.secret}") String jwtSecret,
+            @Value("${documents.signed-url.ttl-seconds:600}") long ttlSeconds
+    ) {
+        byte[] keyBytes = secret.isBlank()
+                ? hmac(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM),
+                        KEY_LABEL.getBytes(StandardCharsets.UTF_8))
+                : secret.getBytes(StandardCharsets.UTF_8);
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public SignedDownload sign(UUID documentId) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        long expires = expiresAt.getEpochSecond();
+        return SignedDownload.builder()
+                .url("/api/documents/" + documentId + "/content/signed?expires=" + expires
+                        + "&signature=" + signature(documentId, expires))
+                .expiresAt(Instant.ofEpochSecond(expires))
+                .build();
+    }
+
+    /**
+     * Confere a assinatura (comparação em tempo constante) e se o link ainda não expirou
+     */
+    public boolean verify(UUID documentId, long expires, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        byte[] expected = signature(documentId, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(UUID documentId, long expires) {
+        byte[] digest = hmac(key, (documentId + ":" + expires).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            // Mac não é thread-safe: uma instância por assinatura
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponível", e);
+        }
+    }
+}
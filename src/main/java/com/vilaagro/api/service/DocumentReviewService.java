@@ -0,0 +1,290 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.dto.CursorPageDTO;
+import com.vilaagro.api.dto.DocumentReviewBatchDTO;
+import com.vilaagro.api.dto.DocumentReviewDecisionDTO;
+import com.vilaagro.api.dto.DocumentReviewResultDTO;
+import com.vilaagro.api.dto.ReviewQueueDocumentDTO;
+import com.vilaagro.api.dto.ReviewQueueItemDTO;
+import com.vilaagro.api.dto.ReviewQueueRowDTO;
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.DocumentType;
+import com.vilaagro.api.model.Notification;
+import com.vilaagro.api.model.NotificationType;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.DocumentRepository;
+import com.vilaagro.api.repository.NotificationRepository;
+import com.vilaagro.api.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Revisão de cadastros de comerciantes em lote (administradores)
+ * A fila traz os próximos usuários pendentes com os metadados dos documentos em uma única consulta,
+ * já com links de download assinados para o navegador pré-carregar os arquivos.
+ * Um lote de decisões é gravado em uma transação: usuários travados e atualizados em lote,
+ * documentos com um comando por status e notificações inseridas em lote.
+ */
+@Service
+@Transactional
+@Slf4j
+public class DocumentReviewService {
+
+    private static final int DEFAULT_QUEUE_SIZE = 20;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final Set<AccountStatus> DECISIONS =
+            EnumSet.of(AccountStatus.ACTIVE, AccountStatus.APPROVED, AccountStatus.DISAPPROVED);
+
+    private final UserRepository userRepository;
+    private final DocumentRepository documentRepository;
+    private final NotificationRepository notificationRepository;
+    private final DocumentDownloadSigner downloadSigner;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final ActiveMerchantCounter activeMerchantCounter;
+    private final int maxBatchSize;
+
+    public DocumentReviewService(
+            UserRepository userRepository,
+            DocumentRepository documentRepository,
+            NotificationRepository notificationRepository,
+            DocumentDownloadSigner downloadSigner,
+            CustomUserDetailsService userDetailsService,
+            RefreshTokenService refreshTokenService,
+            ActiveMerchantCounter activeMerchantCounter,
+            @Value("${documents.review.max-batch-size:100}") int maxBatchSize
+    ) {
+        this.userRepository = userRepository;
+        this.documentRepository = documentRepository;
+        this.notificationRepository = notificationRepository;
+        this.downloadSigner = downloadSigner;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.activeMerchantCounter = activeMerchantCounter;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Admin: Próximos comerciantes pendentes, do cadastro mais antigo para o mais recente
+     * Uma consulta de projeção por página (usuário + documentos), paginada por cursor em (createdAt, id)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReviewQueueItemDTO> getReviewQueue(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_QUEUE_SIZE : Math.max(1, Math.min(limit, maxBatchSize));
+        // Cada usuário ocupa no máximo uma linha por tipo de documento; um usuário a mais indica a próxima página
+        int rowLimit = (pageSize + 1) * DocumentType.values().length;
+        PageRequest rows = PageRequest.of(0, rowLimit);
+
+        List<ReviewQueueRowDTO> result;
+        if (cursor == null || cursor.isBlank()) {
+            result = userRepository.findReviewQueue(AccountStatus.PENDING, UserType.ADMIN, rows);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            result = userRepository.findReviewQueueAfter(
+                    AccountStatus.PENDING, UserType.ADMIN, position.createdAt(), position.id(), rows);
+        }
+
+        Map<UUID, ReviewQueueItemDTO> users = new LinkedHashMap<>();
+        for (ReviewQueueRowDTO row : result) {
+            ReviewQueueItemDTO item = users.computeIfAbsent(row.getUserId(), id -> ReviewQueueItemDTO.builder()
+                    .userId(id)
+                    .name(row.getUserName())
+                    .email(row.getUserEmail())
+                    .cpf(row.getUserCpf())
+                    .type(row.getUserType())
+                    .createdAt(row.getUserCreatedAt())
+                    .documents(new ArrayList<>())
+                    .build());
+            if (row.getDocumentId() != null) {
+                item.getDocuments().add(toQueueDocument(row));
+            }
+        }
+
+        List<ReviewQueueItemDTO> items = new ArrayList<>(users.values());
+        // Limite de linhas atingido: o último usuário pode ter vindo sem todos os documentos
+        boolean truncated = result.size() == rowLimit;
+        if (truncated && items.size() > 1) {
+            items.remove(items.size() - 1);
+        }
+        boolean hasMore = truncated || items.size() > pageSize;
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+
+        String nextCursor = null;
+        if (hasMore && !items.isEmpty()) {
+            ReviewQueueItemDTO last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getUserId());
+        }
+
+        return CursorPageDTO.<ReviewQueueItemDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Admin: Aplica um lote de decisões (ACTIVE, APPROVED ou DISAPPROVED) em uma única transação
+     * Usuários que já não estão pendentes (decididos por outro administrador) são ignorados e informados no resultado
+     *
+     * @throws IllegalArgumentException para lote grande demais, status inválido ou usuário repetido
+     */
+    public DocumentReviewResultDTO applyDecisions(DocumentReviewBatchDTO batch, User adminUser) {
+        List<DocumentReviewDecisionDTO> decisions = batch.getDecisions();
+        if (decisions.size() > maxBatchSize) {
+            throw new IllegalArgumentException("O lote aceita no máximo " + maxBatchSize + " decisões");
+        }
+
+        Map<UUID, DocumentReviewDecisionDTO> byUser = new LinkedHashMap<>();
+        for (DocumentReviewDecisionDTO decision : decisions) {
+            if (!DECISIONS.contains(decision.getStatus())) {
+                throw new IllegalArgumentException("Status inválido para a revisão: " + decision.getStatus());
+            }
+            if (byUser.putIfAbsent(decision.getUserId(), decision) != null) {
+                throw new IllegalArgumentException("Usuário repetido no lote: " + decision.getUserId());
+            }
+        }
+
+        // Uma consulta (com trava) para o lote inteiro
+        List<User> users = userRepository.findByIdInAndDocumentsStatus(byUser.keySet(), AccountStatus.PENDING);
+
+        Map<AccountStatus, List<UUID>> usersByDocumentStatus = new EnumMap<>(AccountStatus.class);
+        List<UUID> disapproved = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>(users.size());
+
+        for (User user : users) {
+            DocumentReviewDecisionDTO decision = byUser.get(user.getId());
+            boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
+            user.setDocumentsStatus(decision.getStatus());
+            activeMerchantCounter.onTransition(wasActiveMerchant, ActiveMerchantCounter.isActiveMerchant(user));
+            userDetailsService.evictUser(user.getId());
+
+            boolean approved = decision.getStatus() != AccountStatus.DISAPPROVED;
+            AccountStatus documentStatus = approved ? AccountStatus.APPROVED : AccountStatus.DISAPPROVED;
+            usersByDocumentStatus.computeIfAbsent(documentStatus, status -> new ArrayList<>()).add(user.getId());
+            if (!approved) {
+                disapproved.add(user.getId());
+            }
+            notifications.add(buildNotification(user, decision));
+        }
+
+        // Gravações agrupadas (hibernate.jdbc.batch_size); documentos com um comando por status
+        userRepository.saveAll(users);
+        int updatedDocuments = 0;
+        for (Map.Entry<AccountStatus, List<UUID>> entry : usersByDocumentStatus.entrySet()) {
+            updatedDocuments += documentRepository.updateStatusByUserIds(entry.getValue(), entry.getKey());
+        }
+        notificationRepository.saveAll(notifications);
+
+        // Usuários reprovados perdem todas as sessões abertas
+        refreshTokenService.revokeAllForUsers(disapproved);
+
+        List<UUID> updatedUserIds = users.stream().map(User::getId).toList();
+        List<UUID> skippedUserIds = byUser.keySet().stream()
+                .filter(id -> !updatedUserIds.contains(id))
+                .toList();
+
+        log.info("Revisão em lote por {}: {} cadastro(s) decidido(s), {} ignorado(s)",
+                adminUser.getEmail(), updatedUserIds.size(), skippedUserIds.size());
+
+        return DocumentReviewResultDTO.builder()
+                .updatedUserIds(updatedUserIds)
+                .skippedUserIds(skippedUserIds)
+                .updatedDocuments(updatedDocuments)
+                .notifications(notifications.size())
+                .build();
+    }
+
+    private ReviewQueueDocumentDTO toQueueDocument(ReviewQueueRowDTO row) {
+        SignedDownload download = downloadSigner.sign(row.getDocumentId());
+        return ReviewQueueDocumentDTO.builder()
+                .id(row.getDocumentId())
+                .type(row.getDocumentType())
+                .originalFileName(row.getOriginalFileName())
+                .contentType(row.getContentType())
+                .fileSize(row.getFileSize())
+                .checksum(row.getChecksum())
+                .status(row.getDocumentStatus())
+                .uploadedAt(row.getUploadedAt())
+                .downloadUrl(download.getUrl())
+                .downloadExpiresAt(download.getExpiresAt())
+                .build();
+    }
+
+    /**
+     * Notificação para o painel administrativo (o feed de notificações é restrito a administradores)
+     */
+    private Notification buildNotification(User user, DocumentReviewDecisionDTO decision) {
+        boolean approved = decision.getStatus() != AccountStatus.DISAPPROVED;
+
+        String message = approved
+                ? "Os documentos de " + user.getName() + " foram aprovados e o cadastro foi liberado."
+                : "Os documentos de " + user.getName() + " foram reprovados.";
+        if (!approved && decision.getReason() != null && !decision.getReason().isBlank()) {
+            message += " Motivo: " + decision.getReason().trim();
+        }
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH);
+        }
+
+        String metadata = String.format(
+                "{\"userId\":\"%s\",\"status\":\"%s\"}",
+                user.getId(),
+                decision.getStatus()
+        );
+
+        return Notification.builder()
+                .user(user)
+                .title(approved ? "Cadastro aprovado" : "Cadastro reprovado")
+                .message(message)
+                .type(NotificationType.APPROVAL)
+                .isRead(false)
+                .metadata(metadata)
+                .build();
+    }
+
+    /**
+     * Codifica a posição (createdAt, id) do último usuário como cursor opaco
+     */
+    private String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new Cursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Posição decodificada do cursor da fila de revisão
+     */
+    private record Cursor(LocalDateTime createdAt, UUID id) {
+    }
+}
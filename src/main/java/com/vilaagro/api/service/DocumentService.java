@@ -5,49 +5,83 @@ import com.vilaagro.api.exception.ResourceNotFoundException;
 import com.vilaagro.api.model.Document;
 import com.vilaagro.api.model.DocumentType;
 import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
 import com.vilaagro.api.repository.DocumentRepository;
 import com.vilaagro.api.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
+    private final DocumentDownloadSigner downloadSigner;
+    private final long maxSizeBytes;
+    private final Set<String> allowedContentTypes;
 
-    public DocumentResponseDTO uploadDocument(UUID userId, DocumentType documentType, MultipartFile file) {
+    public DocumentService(
+            DocumentRepository documentRepository,
+            UserRepository userRepository,
+            FileStorageService fileStorageService,
+            DocumentDownloadSigner downloadSigner,
+            @Value("${documents.max-size-bytes:10485760}") long maxSizeBytes,
+            @Value("${documents.allowed-content-types:application/pdf,image/jpeg,image/png}") Set<String> allowedContentTypes
+    ) {
+        this.documentRepository = documentRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.downloadSigner = downloadSigner;
+        this.maxSizeBytes = maxSizeBytes;
+        this.allowedContentTypes = allowedContentTypes;
+    }
+
+    /**
+     * Grava o documento do usuário, substituindo o anterior do mesmo tipo
+     * O arquivo novo só é publicado e o antigo só é apagado após o commit; se a transação
+     * for desfeita, o documento anterior continua intacto
+     *
+     * @param expectedChecksum SHA-256 calculado pelo cliente (opcional)
+     */
+    public DocumentResponseDTO uploadDocument(UUID userId, DocumentType documentType, MultipartFile file, String expectedChecksum) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", userId));
 
+        StagedFile staged = fileStorageService.stageUpload(
+                file, "documents/" + userId, maxSizeBytes, allowedContentTypes, expectedChecksum);
+        fileStorageService.promoteAfterCommit(staged);
+
         // Verifica se já existe documento desse tipo para o usuário
         documentRepository.findByUserIdAndType(userId, documentType)
                 .ifPresent(existingDoc -> {
-                    // Remove arquivo antigo
-                    fileStorageService.deleteFile(existingDoc.getFilePath());
+                    // Remove arquivo antigo (após o commit)
+                    fileStorageService.deleteAfterCommit(existingDoc.getFilePath());
                     // Remove registro antigo
                     documentRepository.delete(existingDoc);
                 });
 
-        // Salva novo arquivo
-        String filePath = fileStorageService.storeFile(file, "documents/" + userId);
-        
         Document document = Document.builder()
                 .user(user)
                 .type(documentType)
-                .filePath(filePath)
-                .originalFileName(file.getOriginalFilename())
-                .fileExtension(getFileExtension(file.getOriginalFilename()))
-                .fileSize(file.getSize())
+                .filePath(staged.getPath())
+                .originalFileName(staged.getOriginalFilename())
+                .fileExtension(getFileExtension(staged.getPath()))
+                .fileSize(staged.getSize())
+                .contentType(staged.getContentType())
+                .checksum(staged.getChecksum())
                 .build();
 
         Document saved = documentRepository.save(document);
@@ -70,10 +104,66 @@ public class DocumentService {
             throw new IllegalStateException("Você não tem permissão para deletar este documento");
         }
 
-        fileStorageService.deleteFile(document.getFilePath());
+        fileStorageService.deleteAfterCommit(document.getFilePath());
         documentRepository.delete(document);
     }
 
+    /**
+     * Admin/Dono: Abre o documento para download em streaming
+     * Uma única consulta (o id do dono vem da chave estrangeira, sem carregar o usuário)
+     */
+    @Transactional(readOnly = true)
+    public FileDownload getDocumentContent(UUID documentId, User currentUser) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Documento", "id", documentId));
+
+        boolean isOwner = document.getUser().getId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getType() == UserType.ADMIN;
+
+        if (!isOwner && !isAdmin) {
+            throw new AccessDeniedException("Você não tem permissão para acessar este documento.");
+        }
+        return toDownload(document);
+    }
+
+    /**
+     * Abre o documento a partir de um link assinado (gerado na fila de revisão), sem usuário autenticado
+     */
+    @Transactional(readOnly = true)
+    public FileDownload getSignedDocumentContent(UUID documentId, long expires, String signature) {
+        if (!downloadSigner.verify(documentId, expires, signature)) {
+            throw new AccessDeniedException("Link de download inválido ou expirado.");
+        }
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Documento", "id", documentId));
+        return toDownload(document);
+    }
+
+    private FileDownload toDownload(Document document) {
+        return FileDownload.builder()
+                .resource(fileStorageService.loadAsResource(document.getFilePath()))
+                .contentType(resolveContentType(document))
+                .filename(document.getOriginalFileName())
+                .size(document.getFileSize() != null ? document.getFileSize() : 0)
+                .checksum(document.getChecksum())
+                .lastModified(document.getUploadedAt() != null
+                        ? document.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant()
+                        : null)
+                .build();
+    }
+
+    /**
+     * Tipo identificado no envio; documentos antigos (sem contentType) usam a extensão gravada
+     */
+    private String resolveContentType(Document document) {
+        if (document.getContentType() != null) {
+            return document.getContentType();
+        }
+        return MediaTypeFactory.getMediaType("documento." + document.getFileExtension())
+                .map(MediaType::toString)
+                .orElse(null);
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             return "";
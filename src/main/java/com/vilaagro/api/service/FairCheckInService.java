@@ -0,0 +1,244 @@
+package com.vilaagro.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vilaagro.api.dto.AbsenceRegisterDTO;
+import com.vilaagro.api.exception.ResourceNotFoundException;
+import com.vilaagro.api.exception.TooManyRequestsException;
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.Fair;
+import com.vilaagro.api.model.FairCheckIn;
+import com.vilaagro.api.model.FairStatus;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.FairCheckInRepository;
+import com.vilaagro.api.repository.FairRepository;
+import com.vilaagro.api.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Check-in das bancas no dia da feira e derivação das faltas no encerramento
+ * O check-in é confirmado após entrar na fila de gravação (CheckInWriteBehindBuffer);
+ * a idempotência por (feira, usuário) é garantida em memória e, na gravação, pelo banco.
+ */
+@Service
+@Slf4j
+public class FairCheckInService {
+
+    public enum CheckInResult {
+        ACCEPTED,           // Check-in recebido e enfileirado para gravação
+        ALREADY_CHECKED_IN  // Usuário já havia feito check-in nesta feira
+    }
+
+    private final FairRepository fairRepository;
+    private final FairCheckInRepository checkInRepository;
+    private final UserRepository userRepository;
+    private final AttendanceService attendanceService;
+    private final CheckInWriteBehindBuffer buffer;
+    private final PublicResponseCache publicResponseCache;
+    private final long retryAfterSeconds;
+
+    private final Counter acceptedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+
+    /**
+     * Usuários com check-in por feira (gravados ou ainda na fila), carregados do banco uma vez por feira
+     */
+    private final Cache<UUID, Set<UUID>> checkedInByFair = Caffeine.newBuilder()
+            .maximumSize(32)
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+
+    /**
+     * Dados da feira consultados a cada check-in; evitam uma consulta por requisição no pico da abertura
+     */
+    private final Cache<UUID, Fair> fairs = Caffeine.newBuilder()
+            .maximumSize(32)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    public FairCheckInService(
+            FairRepository fairRepository,
+            FairCheckInRepository checkInRepository,
+            UserRepository userRepository,
+            AttendanceService attendanceService,
+            CheckInWriteBehindBuffer buffer,
+            PublicResponseCache publicResponseCache,
+            MeterRegistry meterRegistry,
+            @Value("${fair.check-in.retry-after-seconds:2}") long retryAfterSeconds
+    ) {
+        this.fairRepository = fairRepository;
+        this.checkInRepository = checkInRepository;
+        this.userRepository = userRepository;
+        this.attendanceService = attendanceService;
+        this.buffer = buffer;
+        this.publicResponseCache = publicResponseCache;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.acceptedCounter = meterRegistry.counter("fair.checkin", "result", "accepted");
+        this.duplicateCounter = meterRegistry.counter("fair.checkin", "result", "duplicate");
+        this.rejectedCounter = meterRegistry.counter("fair.checkin", "result", "rejected");
+    }
+
+    /**
+     * Comerciante: Marca presença da sua banca na feira do dia
+     *
+     * @throws TooManyRequestsException se a fila de gravação estiver cheia
+     */
+    public CheckInResult checkIn(UUID fairId, User user) {
+        if (user.getType() == UserType.ADMIN) {
+            throw new AccessDeniedException("Apenas comerciantes fazem check-in na feira.");
+        }
+        if (user.getDocumentsStatus() != AccountStatus.ACTIVE) {
+            throw new AccessDeniedException("Apenas comerciantes ativos podem fazer check-in.");
+        }
+
+        Fair fair = fairs.get(fairId, id -> fairRepository.findById(id).orElse(null));
+        if (fair == null) {
+            throw new ResourceNotFoundException("Feira", "id", fairId);
+        }
+        if (!fair.getDate().equals(LocalDate.now())) {
+            throw new IllegalArgumentException("O check-in só é permitido no dia da feira.");
+        }
+        if (fair.getStatus() == FairStatus.cancelled || fair.getStatus() == FairStatus.completed) {
+            throw new IllegalArgumentException("A feira não está aberta para check-in.");
+        }
+
+        Set<UUID> checkedIn = checkedInByFair.get(fairId, this::loadCheckedIn);
+        if (!checkedIn.add(user.getId())) {
+            duplicateCounter.increment();
+            return CheckInResult.ALREADY_CHECKED_IN;
+        }
+
+        FairCheckIn checkIn = FairCheckIn.builder()
+                .fairId(fairId)
+                .userId(user.getId())
+                .checkedInAt(Instant.now())
+                .build();
+
+        boolean queued;
+        try {
+            queued = buffer.offer(checkIn);
+        } catch (IllegalArgumentException e) {
+            // Feira entrou em encerramento depois da leitura do cache
+            checkedIn.remove(user.getId());
+            rejectedCounter.increment();
+            throw e;
+        }
+        if (!queued) {
+            // Fila cheia: desfaz a marcação para que o cliente possa tentar de novo
+            checkedIn.remove(user.getId());
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Muitos check-ins simultâneos, tente novamente em instantes",
+                    retryAfterSeconds);
+        }
+
+        acceptedCounter.increment();
+        return CheckInResult.ACCEPTED;
+    }
+
+    /**
+     * Admin: Encerra a feira e registra falta para os comerciantes ativos sem check-in
+     * Fecha a entrada de check-ins da feira e aguarda a gravação dos pendentes antes de derivar as faltas;
+     * se o encerramento for desfeito, a feira volta a aceitar check-ins
+     */
+    @Transactional
+    public Map<String, Integer> closeFair(UUID fairId) {
+        Fair fair = fairRepository.findById(fairId)
+                .orElseThrow(() -> new ResourceNotFoundException("Feira", "id", fairId));
+
+        if (fair.getStatus() == FairStatus.cancelled) {
+            throw new IllegalArgumentException("Não é possível encerrar uma feira cancelada.");
+        }
+        if (fair.getDate().isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("A feira ainda não aconteceu.");
+        }
+
+        // Nenhum check-in novo a partir daqui; depois, barreira de durabilidade:
+        // nenhum check-in aceito pode ficar de fora da apuração
+        closeCheckInsUntilCompletion(fairId);
+        buffer.flush();
+
+        Set<UUID> present = checkInRepository.findUserIdsByFairId(fairId);
+        List<UUID> activeMerchants = userRepository.findIdsByStatusExcludingType(AccountStatus.ACTIVE, UserType.ADMIN);
+        List<UUID> absent = activeMerchants.stream()
+                .filter(userId -> !present.contains(userId))
+                .collect(Collectors.toList());
+
+        int registered = 0;
+        if (!absent.isEmpty()) {
+            AbsenceRegisterDTO registerDTO = new AbsenceRegisterDTO();
+            registerDTO.setDate(fair.getDate());
+            registerDTO.setUserIds(absent);
+            registered = attendanceService.registerAbsences(registerDTO).size();
+        }
+
+        // Congela a quantidade de comerciantes esperados no momento do encerramento
+        fair.setExpectedMerchants(activeMerchants.size());
+        fair.setStatus(FairStatus.completed);
+        fairRepository.save(fair);
+        invalidateAfterCommit(fairId);
+        publicResponseCache.invalidateAll();
+
+        log.info("Feira {} encerrada: {} presença(s), {} falta(s) registrada(s)", fairId, present.size(), registered);
+        return Map.of("checkedIn", present.size(), "absencesRegistered", registered);
+    }
+
+    private void closeCheckInsUntilCompletion(UUID fairId) {
+        buffer.closeFair(fairId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        buffer.reopenFair(fairId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Descarta os caches da feira só depois do commit; antes disso um check-in concorrente
+     * recarregaria a feira ainda aberta e ela ficaria em cache após o encerramento
+     */
+    private void invalidateAfterCommit(UUID fairId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fairs.invalidate(fairId);
+                    checkedInByFair.invalidate(fairId);
+                }
+            });
+        } else {
+            fairs.invalidate(fairId);
+            checkedInByFair.invalidate(fairId);
+        }
+    }
+
+    private Set<UUID> loadCheckedIn(UUID fairId) {
+        Set<UUID> checkedIn = ConcurrentHashMap.newKeySet();
+        checkedIn.addAll(checkInRepository.findUserIdsByFairId(fairId));
+        return checkedIn;
+    }
+}
@@ -1,13 +1,13 @@
 package com.vilaagro.api.service;
 
 import com.vilaagro.api.dto.AttractionResponseDTO;
+import com.vilaagro.api.dto.AttractionRowDTO;
 import com.vilaagro.api.dto.FairResponseDTO;
 import com.vilaagro.api.exception.ResourceNotFoundException;
-import com.vilaagro.api.model.AccountStatus;
 import com.vilaagro.api.model.Fair;
-import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.model.FairStatus;
+import com.vilaagro.api.repository.AttractionRepository;
 import com.vilaagro.api.repository.FairRepository;
-import com.vilaagro.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,7 +26,9 @@ import java.util.stream.Collectors;
 public class FairService {
 
     private final FairRepository fairRepository;
-    private final UserRepository userRepository;
+    private final AttractionRepository attractionRepository;
+    private final ActiveMerchantCounter activeMerchantCounter;
+    private final PublicResponseCache publicResponseCache;
 
     public FairResponseDTO createFair(FairCreateDTO createDTO) {
         Fair fair = Fair.builder()
@@ -40,6 +42,7 @@ public class FairService {
                 .build();
 
         Fair savedFair = fairRepository.save(fair);
+        publicResponseCache.invalidateAll();
         return FairResponseDTO.fromEntity(savedFair);
     }
 
@@ -57,6 +60,7 @@ public class FairService {
         fair.setStatus(updateDTO.getStatus());
 
         Fair updatedFair = fairRepository.save(fair);
+        publicResponseCache.invalidateAll();
         return FairResponseDTO.fromEntity(updatedFair);
     }
 
@@ -73,25 +77,26 @@ public class FairService {
         }
 
         fairRepository.delete(fair);
+        publicResponseCache.invalidateAll();
     }
 
     @Transactional(readOnly = true)
     public List<FairResponseDTO> getAllFairs() {
-        updateAllFairsCount();
+        long activeMerchants = activeMerchantCounter.get();
 
         return fairRepository.findAll()
                 .stream()
-                .map(FairResponseDTO::fromEntity)
+                .map(fair -> toResponseDTO(fair, activeMerchants))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<FairResponseDTO> getFairsByMonthAndYear(int month, int year) {
-        updateAllFairsCount();
+        long activeMerchants = activeMerchantCounter.get();
 
         return fairRepository.findByMonthAndYear(month, year)
                 .stream()
-                .map(FairResponseDTO::fromEntity)
+                .map(fair -> toResponseDTO(fair, activeMerchants))
                 .collect(Collectors.toList());
     }
 
@@ -100,42 +105,30 @@ public class FairService {
         Fair fair = fairRepository.findFirstByDateGreaterThanEqualOrderByDateAsc(LocalDate.now())
                 .orElseThrow(() -> new ResourceNotFoundException("Feira", "próxima", "não encontrada"));
 
-        updateMerchantCount(fair);
-
-        return FairResponseDTO.fromEntity(fair);
-    }
-
-    private void updateMerchantCount(Fair fair) {
-        long activeMerchants = userRepository.findAll()
-                .stream()
-                .filter(u -> u.getType() != UserType.ADMIN)
-                .filter(u -> u.getDocumentsStatus() == AccountStatus.ACTIVE)
-                .count();
-
-        fair.setExpectedMerchants((int) activeMerchants);
-        fairRepository.save(fair);
+        return toResponseDTO(fair, activeMerchantCounter.get());
     }
 
-    private void updateAllFairsCount() {
-        long activeMerchants = userRepository.findAll()
-                .stream()
-                .filter(u -> u.getType() != UserType.ADMIN)
-                .filter(u -> u.getDocumentsStatus() == AccountStatus.ACTIVE)
-                .count();
-
-        List<Fair> allFairs = fairRepository.findAll();
-        allFairs.forEach(fair -> fair.setExpectedMerchants((int) activeMerchants));
-        fairRepository.saveAll(allFairs);
+    /**
+     * Converte a feira para DTO com a quantidade de comerciantes esperados
+     * Feiras encerradas mantêm o valor gravado no encerramento; as demais usam o contador atual
+     */
+    private FairResponseDTO toResponseDTO(Fair fair, long activeMerchants) {
+        FairResponseDTO dto = FairResponseDTO.fromEntity(fair);
+        if (fair.getStatus() != FairStatus.completed) {
+            dto.setExpectedMerchants((int) activeMerchants);
+        }
+        return dto;
     }
 
     @Transactional(readOnly = true)
     public List<AttractionResponseDTO> getAttractionsByFairId(UUID fairId) {
-        Fair fair = fairRepository.findById(fairId)
-                .orElseThrow(() -> new ResourceNotFoundException("Feira", "id", fairId));
+        if (!fairRepository.existsById(fairId)) {
+            throw new ResourceNotFoundException("Feira", "id", fairId);
+        }
 
-        return fair.getAttractions()
+        return attractionRepository.findRowsByFairId(fairId)
                 .stream()
-                .map(AttractionResponseDTO::fromEntity)
+                .map(AttractionRowDTO::toResponseDTO)
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
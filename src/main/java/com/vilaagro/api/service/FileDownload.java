@@ -0,0 +1,22 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+/**
+ * Arquivo pronto para download: o conteúdo é lido sob demanda a partir do Resource
+ */
+@Value
+@Builder
+public class FileDownload {
+
+    Resource resource;
+    String contentType;
+    String filename;
+    long size;
+    String checksum;
+    Instant lastModified;
+}
@@ -1,54 +1,285 @@
 package com.vilaagro.api.service;
 
+import com.vilaagro.api.exception.ResourceNotFoundException;
+import com.vilaagro.api.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
+@Slf4j
 public class FileStorageService {
 
+    /**
+     * Diretório (dentro de uploads) onde os envios aguardam o commit da transação
+     */
+    public static final String STAGING_DIR = ".staging";
+
     private final Path fileStorageLocation;
+    private final Path stagingLocation;
+    private final long minFreeBytes;
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    public FileStorageService(
+            @Value("${file.upload-dir:uploads}") String uploadDir,
+            @Value("${file.min-free-bytes:536870912}") long minFreeBytes
+    ) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.stagingLocation = this.fileStorageLocation.resolve(STAGING_DIR);
+        this.minFreeBytes = minFreeBytes;
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.stagingLocation);
         } catch (IOException ex) {
             throw new RuntimeException("Could not create upload directory!", ex);
         }
     }
 
-    public String storeFile(MultipartFile file, String subdir) {
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    /**
+     * Valida e grava um envio na área de staging, sem torná-lo visível ainda
+     * O tipo é identificado pelos bytes iniciais (não pelo nome nem pelo Content-Type do cliente).
+     * O arquivo temporário do multipart é movido (não copiado) para o staging quando está no mesmo disco,
+     * então o conteúdo é gravado uma única vez. O SHA-256 não é calculado durante a cópia: ele relê o arquivo
+     * já em staging, uma leitura a mais em troca de não regravar o conteúdo que o rename evita.
+     *
+     * @param expectedChecksum SHA-256 informado pelo cliente (opcional); se diferente, o envio é recusado
+     * @throws IllegalArgumentException para arquivo vazio, grande demais, de tipo não permitido ou corrompido
+     */
+    public StagedFile stageUpload(MultipartFile file, String subdir, long maxSize,
+                                  Set<String> allowedContentTypes, String expectedChecksum) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Arquivo não enviado ou vazio");
+        }
+        if (file.getSize() > maxSize) {
+            throw new IllegalArgumentException("Arquivo excede o tamanho máximo de " + (maxSize / (1024 * 1024)) + " MB");
+        }
+
+        String contentType = sniffContentType(file);
+        if (contentType == null || !allowedContentTypes.contains(contentType)) {
+            throw new IllegalArgumentException("Tipo de arquivo não permitido. Envie: " + String.join(", ", allowedContentTypes));
+        }
+        ensureFreeSpace(file.getSize());
+
+        Path staged = stagingLocation.resolve(UUID.randomUUID() + ".part");
+        try {
+            // StandardMultipartFile.transferTo(File) delega ao Part.write, que renomeia o temporário quando possível
+            file.transferTo(staged.toFile());
+            String checksum = sha256(staged);
+
+            if (expectedChecksum != null && !expectedChecksum.isBlank() && !expectedChecksum.trim().equalsIgnoreCase(checksum)) {
+                throw new IllegalArgumentException("O checksum informado não confere com o arquivo recebido");
+            }
+
+            String filename = UUID.randomUUID() + "." + extensionOf(contentType);
+            return StagedFile.builder()
+                    .stagedPath(staged)
+                    .path("/uploads/" + subdir + "/" + filename)
+                    .size(Files.size(staged))
+                    .checksum(checksum)
+                    .contentType(contentType)
+                    .originalFilename(StringUtils.cleanPath(file.getOriginalFilename() != null ? file.getOriginalFilename() : ""))
+                    .build();
+        } catch (IOException ex) {
+            deleteQuietly(staged);
+            throw new RuntimeException("Could not stage file " + file.getOriginalFilename(), ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(staged);
+            throw ex;
+        }
+    }
+
+    /**
+     * Move o arquivo do staging para o destino final somente após o commit da transação atual;
+     * se a transação for desfeita, o arquivo em staging é apagado
+     */
+    public void promoteAfterCommit(StagedFile staged) {
+        Path target = resolveStoredPath(staged.getPath());
+        runAfterCommit(() -> {
+            try {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(staged.getStagedPath(), target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(staged.getStagedPath(), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException ex) {
+                log.error("Falha ao publicar arquivo {} (gravado em {}): {}", staged.getPath(), staged.getStagedPath(), ex.getMessage());
+            }
+        }, () -> deleteQuietly(staged.getStagedPath()));
+    }
+
+    /**
+     * Apaga um arquivo gravado (caminho "/uploads/...") somente após o commit da transação atual
+     */
+    public void deleteAfterCommit(String storedPath) {
+        if (storedPath == null) {
+            return;
+        }
+        Path file = resolveStoredPath(storedPath);
+        runAfterCommit(() -> deleteQuietly(file), null);
+    }
+
+    /**
+     * Grava o conteúdo de um stream calculando o SHA-256 durante a cópia
+     */
+    public StoredFile storeStream(InputStream content, String subdir, String originalFilename, String contentType) {
+        String cleanName = StringUtils.cleanPath(originalFilename != null ? originalFilename : "");
+        String extension = cleanName.contains(".") ? cleanName.substring(cleanName.lastIndexOf(".")) : "";
         String filename = UUID.randomUUID().toString() + extension;
 
         try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
             Path targetLocation = this.fileStorageLocation.resolve(subdir).resolve(filename);
             Files.createDirectories(targetLocation.getParent());
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            return "/uploads/" + subdir + "/" + filename;
-        } catch (IOException ex) {
+
+            long size = Files.copy(new DigestInputStream(content, digest), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+
+            return StoredFile.builder()
+                    .path("/uploads/" + subdir + "/" + filename)
+                    .size(size)
+                    .checksum(HexFormat.of().formatHex(digest.digest()))
+                    .contentType(contentType)
+                    .originalFilename(cleanName)
+                    .build();
+        } catch (IOException | NoSuchAlgorithmException ex) {
             throw new RuntimeException("Could not store file " + filename, ex);
         }
     }
 
-    public void deleteFile(String filePath) {
+    /**
+     * Abre um arquivo gravado a partir do caminho salvo no banco ("/uploads/...")
+     * O conteúdo não é lido para a memória; o Resource é transmitido na resposta
+     */
+    public Resource loadAsResource(String storedPath) {
+        Path file = resolveStoredPath(storedPath);
+        if (!Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Arquivo", "caminho", storedPath);
+        }
+        return new FileSystemResource(file);
+    }
+
+    /**
+     * Converte o caminho público salvo no banco para o caminho no disco,
+     * sem permitir sair do diretório de uploads
+     */
+    private Path resolveStoredPath(String storedPath) {
+        String relative = storedPath.startsWith("/uploads/") ? storedPath.substring("/uploads/".length()) : storedPath;
+        Path resolved = this.fileStorageLocation.resolve(relative).normalize();
+        if (!resolved.startsWith(this.fileStorageLocation)) {
+            throw new RuntimeException("Invalid file path " + storedPath);
+        }
+        return resolved;
+    }
+
+    /**
+     * Identifica PDF, JPEG e PNG pelos bytes iniciais do arquivo
+     */
+    private String sniffContentType(MultipartFile file) {
+        byte[] header = new byte[8];
+        int read;
+        try (InputStream in = file.getInputStream()) {
+            read = in.readNBytes(header, 0, header.length);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read file " + file.getOriginalFilename(), ex);
+        }
+
+        if (read >= 5 && header[0] == '%' && header[1] == 'P' && header[2] == 'D' && header[3] == 'F' && header[4] == '-') {
+            return "application/pdf";
+        }
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return "image/png";
+        }
+        return null;
+    }
+
+    private String extensionOf(String contentType) {
+        return switch (contentType) {
+            case "application/pdf" -> "pdf";
+            case "image/jpeg" -> "jpg";
+            case "image/png" -> "png";
+            default -> "bin";
+        };
+    }
+
+    /**
+     * Recusa o envio (503) se gravá-lo deixaria o volume de uploads abaixo da reserva mínima
+     */
+    private void ensureFreeSpace(long size) {
+        try {
+            long usable = Files.getFileStore(stagingLocation).getUsableSpace();
+            if (usable - size < minFreeBytes) {
+                log.warn("Espaço livre insuficiente no volume de uploads ({} bytes disponíveis)", usable);
+                throw new ServiceUnavailableException("Armazenamento temporariamente indisponível, tente novamente mais tarde", 60);
+            }
+        } catch (IOException ex) {
+            log.warn("Não foi possível verificar o espaço livre em {}: {}", stagingLocation, ex.getMessage());
+        }
+    }
+
+    private String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponível", ex);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Executa a ação após o commit (ou imediatamente, fora de transação); onRollback roda se a transação for desfeita
+     */
+    private void runAfterCommit(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onCommit.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && onRollback != null) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private void deleteQuietly(Path file) {
         try {
-            Path file = Paths.get(filePath);
             Files.deleteIfExists(file);
         } catch (IOException ex) {
-            // Log error but don't fail
-            System.err.println("Could not delete file: " + filePath);
+            log.warn("Não foi possível remover {}: {}", file, ex.getMessage());
         }
     }
 }
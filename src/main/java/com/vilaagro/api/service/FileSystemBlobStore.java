@@ -0,0 +1,291 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.exception.ResourceNotFoundException;
+import com.vilaagro.api.model.StoredBlob;
+import com.vilaagro.api.repository.StoredBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * BlobStore em disco: conteúdos em {@code <dir>/ab/cd/<sha256>}, metadados e referências na tabela stored_blob
+ * A gravação vai para um arquivo temporário (com hash calculado durante a cópia), é sincronizada
+ * com o disco e só então ligada (hard link) ao caminho final; um leitor nunca vê arquivo parcial.
+ * O temporário é mantido até o fim da transação: se uma remoção concorrente apagou o arquivo final
+ * antes do commit, ele é restaurado a partir do temporário.
+ */
+@Service
+@Transactional
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{64}");
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final Path root;
+    private final Path tempDir;
+    private final TransactionTemplate requiresNew;
+
+    // Serializa, por conteúdo, a remoção do arquivo e a restauração após o commit de uma gravação
+    private final Object[] fileLocks = new Object[LOCK_STRIPES];
+
+    public FileSystemBlobStore(
+            StoredBlobRepository storedBlobRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${blob-store.dir:uploads/blobs}") String dir
+    ) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < fileLocks.length; i++) {
+            fileLocks[i] = new Object();
+        }
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.tempDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(tempDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório do BlobStore", e);
+        }
+    }
+
+    @Override
+    public BlobInfo put(InputStream content, String contentType) {
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".part");
+        boolean handedOff = false;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                size = new DigestInputStream(content, digest).transferTo(out);
+                channel.force(true);
+            }
+
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            linkIntoPlace(temp, pathOf(checksum));
+            BlobInfo info = register(checksum, size, contentType);
+            ensurePresentAfterCommit(checksum, temp);
+            handedOff = true;
+            return info;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar conteúdo no BlobStore", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        } finally {
+            if (!handedOff) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    @Override
+    public void retain(String checksum) {
+        if (storedBlobRepository.retain(checksum) == 0) {
+            throw new ResourceNotFoundException("Conteúdo", "checksum", checksum);
+        }
+    }
+
+    @Override
+    public void release(String checksum) {
+        if (checksum == null) {
+            return;
+        }
+        storedBlobRepository.release(checksum);
+        if (storedBlobRepository.deleteIfUnreferenced(checksum) > 0) {
+            deleteFileAfterCommit(checksum);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BlobInfo> stat(String checksum) {
+        return storedBlobRepository.findById(checksum).map(this::toInfo);
+    }
+
+    @Override
+    public Resource open(String checksum) {
+        Path file = CHECKSUM.matcher(checksum).matches() ? pathOf(checksum) : null;
+        if (file == null || !Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Conteúdo", "checksum", checksum);
+        }
+        return new FileSystemResource(file);
+    }
+
+    /**
+     * Adiciona a referência ao conteúdo, criando o registro de metadados na primeira gravação
+     * Duas primeiras gravações simultâneas do mesmo conteúdo disputam o insert; a perdedora
+     * apenas volta a incrementar a referência do registro criado pela outra.
+     */
+    private BlobInfo register(String checksum, long size, String contentType) {
+        for (int attempt = 0; attempt < MAX_REGISTER_ATTEMPTS; attempt++) {
+            if (storedBlobRepository.retain(checksum) > 0) {
+                return storedBlobRepository.findById(checksum).map(this::toInfo).orElseThrow();
+            }
+            insertIfAbsent(checksum, size, contentType);
+        }
+        throw new IllegalStateException("Não foi possível registrar o conteúdo " + checksum);
+    }
+
+    /**
+     * Cria o registro sem referências em transação própria: a violação de chave de uma inserção
+     * concorrente não pode marcar a transação do chamador para rollback
+     */
+    private void insertIfAbsent(String checksum, long size, String contentType) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (!storedBlobRepository.existsById(checksum)) {
+                    storedBlobRepository.saveAndFlush(StoredBlob.builder()
+                            .checksum(checksum)
+                            .size(size)
+                            .contentType(contentType != null ? contentType : "application/octet-stream")
+                            .refCount(0)
+                            .createdAt(Instant.now())
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Conteúdo {} registrado em paralelo por outra requisição", checksum);
+        }
+    }
+
+    /**
+     * Liga o temporário ao caminho final, mantendo o temporário; se o conteúdo já existe, nada a fazer
+     */
+    private void linkIntoPlace(Path temp, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, temp);
+        } catch (FileAlreadyExistsException e) {
+            // Gravado em paralelo por outra requisição: mesmo conteúdo, nada a fazer
+        } catch (UnsupportedOperationException | IOException e) {
+            // Sistema de arquivos sem hard link: copia para outro temporário e renomeia
+            Path copy = tempDir.resolve(UUID.randomUUID() + ".part");
+            try {
+                Files.copy(temp, copy);
+                Files.move(copy, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(copy, target, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                deleteQuietly(copy);
+            }
+        }
+    }
+
+    /**
+     * Após o commit, recoloca o arquivo se uma remoção concorrente o apagou antes do registro
+     * desta gravação ficar visível; o temporário é descartado ao fim da transação
+     */
+    private void ensurePresentAfterCommit(String checksum, Path temp) {
+        Runnable restore = () -> {
+            synchronized (lockFor(checksum)) {
+                try {
+                    linkIntoPlace(temp, pathOf(checksum));
+                } catch (IOException e) {
+                    log.error("Não foi possível restaurar o conteúdo {}: {}", checksum, e.getMessage());
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    restore.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    deleteQuietly(temp);
+                }
+            });
+        } else {
+            restore.run();
+            deleteQuietly(temp);
+        }
+    }
+
+    private void deleteFileAfterCommit(String checksum) {
+        Runnable delete = () -> {
+            // Pode ter sido gravado de novo por outra transação depois da remoção do registro;
+            // se ela ainda não fez commit, restaura o arquivo depois (ensurePresentAfterCommit)
+            synchronized (lockFor(checksum)) {
+                if (!storedBlobRepository.existsById(checksum)) {
+                    deleteQuietly(pathOf(checksum));
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
+        }
+    }
+
+    private Object lockFor(String checksum) {
+        return fileLocks[Math.floorMod(checksum.hashCode(), fileLocks.length)];
+    }
+
+    private Path pathOf(String checksum) {
+        return root.resolve(checksum.substring(0, 2)).resolve(checksum.substring(2, 4)).resolve(checksum);
+    }
+
+    private BlobInfo toInfo(StoredBlob blob) {
+        return BlobInfo.builder()
+                .checksum(blob.getChecksum())
+                .size(blob.getSize())
+                .contentType(blob.getContentType())
+                .createdAt(blob.getCreatedAt())
+                .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover {}: {}", file, e.getMessage());
+        }
+    }
+}
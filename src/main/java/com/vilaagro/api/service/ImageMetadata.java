@@ -0,0 +1,78 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Metadados de uma imagem: tipo, dimensões, tamanho e SHA-256
+ * Tipo e dimensões vêm do cabeçalho do arquivo, sem decodificar os pixels
+ */
+@Value
+@Builder
+public class ImageMetadata {
+
+    String contentType;
+    Integer width;
+    Integer height;
+    long size;
+    String checksum;
+
+    /**
+     * Tipos aceitos para imagens servidas pela API; o tipo vem sempre do conteúdo, nunca do declarado pelo cliente
+     */
+    public static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif");
+
+    /**
+     * Lê os metadados da imagem
+     *
+     * @throws IllegalArgumentException se o ImageIO não reconhecer o conteúdo ou o formato não for JPEG, PNG ou GIF
+     */
+    public static ImageMetadata of(byte[] content) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("O arquivo não é uma imagem válida.");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                String contentType = "image/" + reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+                    throw new IllegalArgumentException("Formato de imagem não suportado. Envie JPEG, PNG ou GIF.");
+                }
+                return ImageMetadata.builder()
+                        .contentType(contentType)
+                        .width(reader.getWidth(0))
+                        .height(reader.getHeight(0))
+                        .size(content.length)
+                        .checksum(sha256(content))
+                        .build();
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("O arquivo não é uma imagem válida.");
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.vilaagro.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -33,6 +47,136 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration}")
     private long refreshTokenExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    /**
+     * Identificador (kid) da chave atual, usada para assinar novos tokens
+     */
+    @Value("${jwt.key-id:primary}")
+    private String activeKeyId;
+
+    /**
+     * Chaves anteriores aceitas apenas na validação, no formato "kid:segredoBase64,kid2:segredoBase64"
+     * Permite trocar o jwt.secret sem invalidar os tokens já emitidos
+     */
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+
+    // Chaves e parser montados uma única vez na inicialização (o JwtParser é imutável e thread-safe)
+    private Key signingKey;
+    private Map<String, Key> verificationKeys;
+    private JwtParser jwtParser;
+
+    /**
+     * Cache de tokens já verificados, indexado pelo hash SHA-256 do token
+     * Cada entrada expira junto com o próprio token
+     */
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        initSigningKeys();
+        initVerifiedTokenCache();
+    }
+
+    /**
+     * Decodifica os segredos e monta o parser que escolhe a chave pelo header kid
+     */
+    private void initSigningKeys() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+
+        Map<String, Key> keys = new HashMap<>();
+        keys.put(activeKeyId, signingKey);
+        for (String entry : previousSecrets.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalStateException("Formato inválido em jwt.previous-secrets, use kid:segredo");
+            }
+            keys.putIfAbsent(parts[0], Keys.hmacShaKeyFor(Decoders.BASE64.decode(parts[1])));
+        }
+        verificationKeys = Map.copyOf(keys);
+
+        jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Tokens emitidos antes da rotação não têm kid e usam a chave atual
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            return signingKey;
+                        }
+                        Key key = verificationKeys.get(keyId);
+                        if (key == null) {
+                            throw new JwtException("Chave de assinatura desconhecida: " + keyId);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        log.info("Chaves JWT carregadas (ativa: {}, total: {})", activeKeyId, verificationKeys.size());
+    }
+
+    private void initVerifiedTokenCache() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.getExpiration()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifica a assinatura do token uma única vez e retorna suas claims principais
+     * Requisições repetidas com o mesmo token são atendidas pelo cache sem nova verificação HMAC
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido, adulterado ou expirado
+     */
+    public VerifiedToken verify(String token) {
+        String cacheKey = hashToken(token);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = VerifiedToken.builder()
+                .tokenId(claims.getId())
+                .familyId(claims.get("familyId", String.class))
+                .subject(claims.getSubject())
+                .userId(claims.get("userId", String.class))
+                .userType(claims.get("userType", String.class))
+                .tokenType(claims.get("tokenType", String.class))
+                .expiration(expiration != null ? expiration.toInstant() : null)
+                .build();
+
+        // Tokens sem expiração nunca entram no cache
+        if (expiration != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return verified;
+    }
+
     /**
      * Extrai o email (subject) do token JWT
      */
@@ -75,10 +219,12 @@ public class JwtService {
     }
 
     /**
-     * Gera um Refresh Token
+     * Gera um Refresh Token identificado por um jti e vinculado a uma família de sessão
      */
-    public String generateRefreshToken(UserDetails userDetails) {
+    public String generateRefreshToken(UserDetails userDetails, String tokenId, String familyId) {
         Map<String, Object> extraClaims = new HashMap<>();
+        extraClaims.put(Claims.ID, tokenId);
+        extraClaims.put("familyId", familyId);
         extraClaims.put("tokenType", "REFRESH");
 
         return generateToken(extraClaims, userDetails, refreshTokenExpiration);
@@ -98,7 +244,8 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -115,6 +262,15 @@ public class JwtService {
         }
     }
 
+    /**
+     * Valida um token já verificado para o usuário específico, sem novo parse
+     */
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
+    }
+
     /**
      * Verifica se o token está expirado
      */
@@ -133,22 +289,11 @@ public class JwtService {
      * Extrai todas as claims do token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    /**
-     * Obtém a chave de assinatura a partir do secret
-     */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Verifica se o token é um Access Token
      */
@@ -172,4 +317,16 @@ public class JwtService {
             return false;
         }
     }
+
+    /**
+     * Calcula o hash SHA-256 do token para uso como chave de cache
+     */
+    private String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package com.vilaagro.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache das respostas JSON dos endpoints públicos de feiras/atrações
+ * Guarda o corpo já serializado com o ETag forte correspondente; requisições simultâneas
+ * para a mesma chave ausente esperam um único carregamento (sem efeito manada no banco).
+ * Qualquer alteração em feiras, atrações ou artistas invalida todas as entradas após o commit.
+ */
+@Component
+@Slf4j
+public class PublicResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedResponse> cache;
+    private final CacheControl cacheControl;
+
+    /**
+     * Geração atual das entradas; carregamentos iniciados antes de uma invalidação
+     * ficam gravados sob a geração antiga e nunca são servidos
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PublicResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${public-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${public-cache.max-age-seconds:60}") long maxAgeSeconds,
+            @Value("${public-cache.max-size:256}") long maxSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+
+    /**
+     * Resposta serializada e seu ETag
+     */
+    public record CachedResponse(byte[] body, String etag) {
+    }
+
+    /**
+     * Responde a partir do cache: 304 se o cliente já possui a versão atual, senão 200 com o JSON
+     */
+    public ResponseEntity<byte[]> respond(String key, String ifNoneMatch, Supplier<Object> loader) {
+        CachedResponse response = get(key, loader);
+
+        if (matches(ifNoneMatch, response.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(response.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .cacheControl(cacheControl)
+                .body(response.body());
+    }
+
+    /**
+     * Obtém a resposta da chave, carregando-a uma única vez se ausente
+     */
+    public CachedResponse get(String key, Supplier<Object> loader) {
+        return cache.get(generation.get() + ":" + key, k -> serialize(loader.get()));
+    }
+
+    /**
+     * Invalida todas as respostas após o commit da transação atual (ou imediatamente, fora de transação)
+     */
+    public void invalidateAll() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private CachedResponse serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new CachedResponse(body, "\"" + sha256(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar resposta pública", e);
+        }
+    }
+
+    /**
+     * Compara o If-None-Match (lista de ETags, fracos ou fortes, ou "*") com o ETag atual
+     */
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
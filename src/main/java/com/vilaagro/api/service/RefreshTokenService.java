@@ -0,0 +1,197 @@
+package com.vilaagro.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vilaagro.api.model.RefreshToken;
+import com.vilaagro.api.repository.RefreshTokenRepository;
+import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serviço que mantém o registro dos refresh tokens emitidos
+ * Cada refresh é de uso único: ao ser usado, é trocado por um novo token da mesma família.
+ * A reutilização de um token já trocado indica roubo e revoga a família inteira, exceto dentro de uma
+ * janela curta (abas simultâneas, requisição repetida), em que o sucessor já emitido é entregue de novo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+
+    @Value("${jwt.refresh-token.expiration}")
+    private long refreshTokenExpiration;
+
+    @Value("${jwt.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    @Value("${jwt.refresh-token.revoked-index.max-size:100000}")
+    private long revokedIndexMaxSize;
+
+    /**
+     * Índice em memória de jtis revogados
+     * Permite recusar tokens conhecidos sem ir ao banco; o banco continua sendo a fonte da verdade
+     */
+    private Cache<String, Boolean> revokedJtis;
+
+    @PostConstruct
+    void initRevokedIndex() {
+        revokedJtis = Caffeine.newBuilder()
+                .maximumSize(revokedIndexMaxSize)
+                .expireAfterWrite(Duration.ofMillis(refreshTokenExpiration))
+                .build();
+    }
+
+    /**
+     * Emite o primeiro refresh token de uma nova sessão (nova família)
+     */
+    public String issue(CustomUserPrincipal principal) {
+        return issueInFamily(principal, UUID.randomUUID(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Troca um refresh token válido por um novo da mesma família
+     * Roda em transação própria para que a revocação por reutilização seja gravada
+     * mesmo quando a requisição termina com erro
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = BadCredentialsException.class)
+    public String rotate(VerifiedToken presented, CustomUserPrincipal principal) {
+        String jti = presented.getTokenId();
+
+        if (jti == null || presented.getFamilyId() == null) {
+            throw new BadCredentialsException("Refresh token sem identificador");
+        }
+
+        // Caminho rápido: token sabidamente revogado
+        UUID familyId = UUID.fromString(presented.getFamilyId());
+        if (revokedJtis.getIfPresent(jti) != null) {
+            revokeFamily(familyId);
+            throw new BadCredentialsException("Refresh token revogado");
+        }
+
+        // Marca como usado de forma atômica; só um refresh concorrente com o mesmo token vence
+        Instant now = Instant.now();
+        String successor = UUID.randomUUID().toString();
+        if (refreshTokenRepository.markUsed(jti, successor, now) == 0) {
+            RefreshToken used = refreshTokenRepository.findById(jti).orElse(null);
+            if (isWithinReuseGrace(used, now)) {
+                // Mesmo token apresentado de novo logo após a troca: reentrega o sucessor já registrado
+                return jwtService.generateRefreshToken(principal, used.getReplacedBy(), presented.getFamilyId());
+            }
+            log.warn("Reutilização de refresh token detectada para usuário: {}", principal.getUsername());
+            revokeFamily(familyId);
+            throw new BadCredentialsException("Refresh token revogado");
+        }
+
+        return issueInFamily(principal, familyId, successor);
+    }
+
+    /**
+     * Token já trocado há menos de reuse-grace-seconds, com sucessor ainda válido
+     */
+    private boolean isWithinReuseGrace(RefreshToken used, Instant now) {
+        if (used == null || used.getRevoked() || used.getUsedAt() == null || used.getReplacedBy() == null) {
+            return false;
+        }
+        if (used.getUsedAt().plusSeconds(reuseGraceSeconds).isBefore(now)) {
+            return false;
+        }
+        return refreshTokenRepository.findById(used.getReplacedBy())
+                .map(next -> !next.getRevoked() && next.getExpiresAt().isAfter(now))
+                .orElse(false);
+    }
+
+    /**
+     * Revoga todos os tokens de uma família (sessão), usado no logout e na detecção de reutilização
+     */
+    public void revokeFamily(UUID familyId) {
+        List<String> jtis = refreshTokenRepository.findActiveJtisByFamilyId(familyId);
+        refreshTokenRepository.revokeFamily(familyId);
+        indexRevoked(jtis);
+    }
+
+    /**
+     * Revoga todas as sessões de um usuário (troca de senha, reprovação, exclusão)
+     */
+    public void revokeAllForUser(UUID userId) {
+        List<String> jtis = refreshTokenRepository.findActiveJtisByUserId(userId);
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId);
+        indexRevoked(jtis);
+
+        if (revoked > 0) {
+            log.info("{} refresh token(s) revogado(s) para usuário: {}", revoked, userId);
+        }
+    }
+
+    /**
+     * Revoga todas as sessões de vários usuários com um único comando (reprovação em lote)
+     */
+    public void revokeAllForUsers(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> jtis = refreshTokenRepository.findActiveJtisByUserIdIn(userIds);
+        int revoked = refreshTokenRepository.revokeAllByUserIdIn(userIds);
+        indexRevoked(jtis);
+
+        if (revoked > 0) {
+            log.info("{} refresh token(s) revogado(s) para {} usuário(s)", revoked, userIds.size());
+        }
+    }
+
+    /**
+     * Remove diariamente os registros de tokens já expirados
+     */
+    @Scheduled(cron = "${jwt.refresh-token.purge-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        log.info("{} refresh token(s) expirado(s) removido(s)", removed);
+    }
+
+    private String issueInFamily(CustomUserPrincipal principal, UUID familyId, String jti) {
+        RefreshToken refreshToken = RefreshToken.builder()
+                .jti(jti)
+                .familyId(familyId)
+                .userId(principal.getUser().getId())
+                .expiresAt(Instant.now().plusMillis(refreshTokenExpiration))
+                .build();
+        refreshTokenRepository.save(refreshToken);
+
+        return jwtService.generateRefreshToken(principal, jti, familyId.toString());
+    }
+
+    /**
+     * Adiciona os jtis ao índice em memória após o commit (ou imediatamente, fora de transação)
+     */
+    private void indexRevoked(Collection<String> jtis) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jtis.forEach(jti -> revokedJtis.put(jti, Boolean.TRUE));
+                }
+            });
+        } else {
+            jtis.forEach(jti -> revokedJtis.put(jti, Boolean.TRUE));
+        }
+    }
+}
@@ -28,6 +28,8 @@ public class SalePointService {
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
     private final UserService userService; // Para converter User -> UserResponseDTO
+    private final CustomUserDetailsService userDetailsService;
+    private final ActiveMerchantCounter activeMerchantCounter;
 
     /**
      * Cria um novo Ponto de Venda (RF-D.4.2)
@@ -133,12 +135,15 @@ public class SalePointService {
         }
 
         // Alocação
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
         user.setSalePointId(salePoint.getId());
 
         // Regra de Negócio: RN-D.4.2
         user.setDocumentsStatus(AccountStatus.ACTIVE);
 
         User allocatedUser = userRepository.save(user);
+        userDetailsService.evictUser(allocatedUser.getId());
+        activeMerchantCounter.onTransition(wasActiveMerchant, ActiveMerchantCounter.isActiveMerchant(allocatedUser));
         return userService.convertToResponseDTO(allocatedUser);
     }
 
@@ -155,12 +160,15 @@ public class SalePointService {
             throw new ResourceNotFoundException("Nenhum usuário encontrado para este Ponto de Venda", "id", salePointId);
         }
 
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
         user.setSalePointId(null);
         // Regra de Negócio: Ao desalocar, usuário volta para fila (APROVADO) ou fica INATIVO?
         // Vamos definir como INATIVO por segurança.
         user.setDocumentsStatus(AccountStatus.INACTIVE);
 
         User updatedUser = userRepository.save(user);
+        userDetailsService.evictUser(updatedUser.getId());
+        activeMerchantCounter.onTransition(wasActiveMerchant, false);
         return userService.convertToResponseDTO(updatedUser);
     }
 
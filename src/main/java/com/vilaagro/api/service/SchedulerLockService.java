@@ -0,0 +1,95 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.model.SchedulerLock;
+import com.vilaagro.api.repository.SchedulerLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Eleição de líder por trava no banco para jobs agendados
+ * Com várias instâncias rodando, só a que obtém a trava executa o job; as demais pulam a execução.
+ * A trava expira sozinha (lockAtMostFor), então um nó que cair não bloqueia o job para sempre.
+ */
+@Service
+@Slf4j
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    public SchedulerLockService(SchedulerLockRepository lockRepository, PlatformTransactionManager transactionManager) {
+        this.lockRepository = lockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = resolveHostName() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Tenta obter a trava do job por no máximo {@code lockAtMostFor}
+     *
+     * @return true se este nó passou a ser o líder do job
+     */
+    public boolean tryAcquire(String name, Duration lockAtMostFor) {
+        Instant now = Instant.now();
+
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> {
+                if (lockRepository.acquire(name, nodeId, now, now.plus(lockAtMostFor)) > 0) {
+                    return true;
+                }
+                if (lockRepository.existsById(name)) {
+                    return false;
+                }
+                // Primeira execução do job: cria o registro da trava já ocupado por este nó
+                lockRepository.saveAndFlush(SchedulerLock.builder()
+                        .name(name)
+                        .lockedAt(now)
+                        .lockedUntil(now.plus(lockAtMostFor))
+                        .lockedBy(nodeId)
+                        .build());
+                return true;
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó criou o registro ao mesmo tempo e ficou com a trava
+            return false;
+        }
+    }
+
+    /**
+     * Prolonga a trava durante jobs longos
+     *
+     * @return false se a trava não pertence mais a este nó (o job deve parar)
+     */
+    public boolean extend(String name, Duration lockAtMostFor) {
+        Integer updated = transactionTemplate.execute(status ->
+                lockRepository.extend(name, nodeId, Instant.now().plus(lockAtMostFor)));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * Libera a trava para a próxima execução
+     */
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status -> lockRepository.release(name, nodeId, Instant.now()));
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
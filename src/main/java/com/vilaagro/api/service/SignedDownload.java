@@ -0,0 +1,17 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Link de download assinado: válido até {@code expiresAt}, sem exigir o token de acesso
+ */
+@Value
+@Builder
+public class SignedDownload {
+
+    String url;
+    Instant expiresAt;
+}
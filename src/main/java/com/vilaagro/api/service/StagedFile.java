@@ -0,0 +1,22 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Envio validado que aguarda o commit na área de staging
+ * {@code path} é o caminho público ("/uploads/...") que o arquivo terá depois de publicado
+ */
+@Value
+@Builder
+public class StagedFile {
+
+    Path stagedPath;
+    String path;
+    long size;
+    String checksum;
+    String contentType;
+    String originalFilename;
+}
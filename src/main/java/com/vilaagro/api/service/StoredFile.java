@@ -0,0 +1,18 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Metadados de um arquivo gravado pelo FileStorageService
+ */
+@Value
+@Builder
+public class StoredFile {
+
+    String path;
+    long size;
+    String checksum;
+    String contentType;
+    String originalFilename;
+}
@@ -0,0 +1,18 @@
+package com.vilaagro.api.service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escrita de planilhas linha a linha, direto no stream de saída
+ * Nenhuma implementação acumula as linhas em memória
+ */
+public interface TabularExportWriter {
+
+    void writeRow(List<String> values) throws IOException;
+
+    /**
+     * Finaliza o arquivo (rodapés, entradas restantes do zip) e descarrega o buffer
+     */
+    void finish() throws IOException;
+}
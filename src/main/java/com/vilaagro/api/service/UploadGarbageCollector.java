@@ -0,0 +1,523 @@
+package com.vilaagro.api.service;
+
+import com.vilaagro.api.model.JobCheckpoint;
+import com.vilaagro.api.repository.DocumentRepository;
+import com.vilaagro.api.repository.JobCheckpointRepository;
+import com.vilaagro.api.repository.JustificationRepository;
+import com.vilaagro.api.repository.StoredBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Coleta de arquivos órfãos no volume de uploads
+ * Percorre documents/, annexes/ e o BlobStore com Files.walkFileTree (uma pasta de primeiro nível por tarefa,
+ * em paralelo) e confere os arquivos em lotes contra o banco; arquivos que nenhum registro referencia
+ * são apenas relatados (dry-run), movidos para a quarentena ou apagados, conforme uploads.gc.mode.
+ * Cada execução processa no máximo uploads.gc.max-dirs-per-run pastas por área e grava um checkpoint,
+ * então volumes grandes são cobertos ao longo de várias execuções com memória limitada ao lote.
+ * Temporários abandonados (.staging e tmp do BlobStore) são apagados por idade.
+ */
+@Service
+@Slf4j
+public class UploadGarbageCollector {
+
+    static final String JOB_NAME = "uploads-gc";
+
+    /**
+     * Diretório (dentro de uploads) para onde vão os órfãos no modo quarentena
+     */
+    public static final String QUARANTINE_DIR = ".quarantine";
+
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{64}");
+
+    public enum Mode {
+        DRY_RUN, QUARANTINE, DELETE;
+
+        static Mode fromProperty(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Área varrida: raiz, como obter a chave gravada no banco a partir do arquivo e quais chaves existem
+     */
+    private record Area(String name, Path root, Set<String> skippedDirs,
+                        Function<Path, String> keyOf, Function<Collection<String>, List<String>> existing) {
+    }
+
+    private record Candidate(Path file, String key, long size) {
+    }
+
+    /**
+     * Resultado de uma execução da coleta
+     */
+    @lombok.Value
+    @Builder
+    public static class GcReport {
+        boolean executed;
+        Mode mode;
+        long scannedFiles;
+        long orphanFiles;
+        long orphanBytes;
+        long removedFiles;
+        long expiredTempFiles;
+        List<String> completedAreas;
+        List<String> sampleOrphans;
+    }
+
+    private final JobCheckpointRepository checkpointRepository;
+    private final SchedulerLockService lockService;
+    private final ThreadPoolExecutor executor;
+
+    private final Path uploadsRoot;
+    private final Path quarantineRoot;
+    private final List<Area> areas;
+    private final List<Path> tempDirs;
+
+    private final Mode mode;
+    private final Duration minAge;
+    private final Duration quarantineRetention;
+    private final int batchSize;
+    private final int maxDirsPerRun;
+    private final int sampleSize;
+    private final Duration lockAtMostFor;
+
+    private final Counter scannedCounter;
+    private final Counter orphanCounter;
+    private final Counter removedCounter;
+    private final Timer runTimer;
+
+    public UploadGarbageCollector(
+            DocumentRepository documentRepository,
+            JustificationRepository justificationRepository,
+            StoredBlobRepository storedBlobRepository,
+            JobCheckpointRepository checkpointRepository,
+            SchedulerLockService lockService,
+            MeterRegistry meterRegistry,
+            @Value("${file.upload-dir:uploads}") String uploadDir,
+            @Value("${blob-store.dir:uploads/blobs}") String blobDir,
+            @Value("${uploads.gc.mode:dry-run}") String mode,
+            @Value("${uploads.gc.min-age-hours:24}") long minAgeHours,
+            @Value("${uploads.gc.quarantine-retention-days:30}") long quarantineRetentionDays,
+            @Value("${uploads.gc.batch-size:500}") int batchSize,
+            @Value("${uploads.gc.max-dirs-per-run:1000}") int maxDirsPerRun,
+            @Value("${uploads.gc.parallelism:2}") int parallelism,
+            @Value("${uploads.gc.sample-size:50}") int sampleSize,
+            @Value("${uploads.gc.lock-minutes:60}") long lockMinutes
+    ) {
+        this.checkpointRepository = checkpointRepository;
+        this.lockService = lockService;
+        this.uploadsRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.quarantineRoot = uploadsRoot.resolve(QUARANTINE_DIR);
+        Path blobRoot = Paths.get(blobDir).toAbsolutePath().normalize();
+
+        this.areas = List.of(
+                new Area("documents", uploadsRoot.resolve("documents"), Set.of(),
+                        this::storedPathOf, documentRepository::findExistingFilePaths),
+                new Area("annexes", uploadsRoot.resolve("annexes"), Set.of(),
+                        this::storedPathOf, justificationRepository::findExistingAnnexPaths),
+                new Area("blobs", blobRoot, Set.of("tmp"),
+                        this::checksumOf, storedBlobRepository::findExistingChecksums)
+        );
+        this.tempDirs = List.of(uploadsRoot.resolve(FileStorageService.STAGING_DIR), blobRoot.resolve("tmp"));
+
+        this.mode = Mode.fromProperty(mode);
+        this.minAge = Duration.ofHours(minAgeHours);
+        this.quarantineRetention = Duration.ofDays(quarantineRetentionDays);
+        this.batchSize = batchSize;
+        this.maxDirsPerRun = maxDirsPerRun;
+        this.sampleSize = sampleSize;
+        this.lockAtMostFor = Duration.ofMinutes(lockMinutes);
+        this.executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxDirsPerRun),
+                new CustomizableThreadFactory("uploads-gc-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.scannedCounter = meterRegistry.counter("uploads.gc.scanned");
+        this.orphanCounter = meterRegistry.counter("uploads.gc.orphans");
+        this.removedCounter = meterRegistry.counter("uploads.gc.removed");
+        this.runTimer = Timer.builder("uploads.gc")
+                .description("Tempo de uma execução da coleta de arquivos órfãos")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Execução agendada (padrão: diariamente às 3h45) no modo configurado
+     */
+    @Scheduled(cron = "${uploads.gc.cron:0 45 3 * * *}")
+    public void scheduledCollect() {
+        GcReport report = collect(false);
+        if (report.isExecuted()) {
+            log.info("Coleta de uploads ({}): {} arquivo(s) verificado(s), {} órfão(s) ({} bytes), {} removido(s)",
+                    report.getMode(), report.getScannedFiles(), report.getOrphanFiles(),
+                    report.getOrphanBytes(), report.getRemovedFiles());
+        }
+    }
+
+    /**
+     * Executa a coleta se este nó conseguir a trava; caso contrário não faz nada
+     *
+     * @param dryRun true força o modo relatório, sem mover nem apagar arquivos
+     */
+    public GcReport collect(boolean dryRun) {
+        if (!lockService.tryAcquire(JOB_NAME, lockAtMostFor)) {
+            log.info("Coleta de uploads já em execução em outra instância");
+            return GcReport.builder().executed(false).build();
+        }
+
+        Mode effectiveMode = dryRun ? Mode.DRY_RUN : mode;
+        Tally tally = new Tally(sampleSize);
+        List<String> completed = new ArrayList<>();
+
+        try {
+            runTimer.record(() -> {
+                Instant now = Instant.now();
+                for (Path tempDir : tempDirs) {
+                    expire(tempDir, now.minus(minAge), effectiveMode, tally);
+                }
+                expire(quarantineRoot, now.minus(quarantineRetention), effectiveMode, tally);
+
+                for (Area area : areas) {
+                    if (!lockService.extend(JOB_NAME, lockAtMostFor)) {
+                        log.warn("Trava da coleta de uploads perdida, interrompendo a execução");
+                        break;
+                    }
+                    if (collectArea(area, now.minus(minAge), effectiveMode, tally)) {
+                        completed.add(area.name());
+                    }
+                }
+            });
+        } finally {
+            lockService.release(JOB_NAME);
+        }
+
+        return GcReport.builder()
+                .executed(true)
+                .mode(effectiveMode)
+                .scannedFiles(tally.scanned.sum())
+                .orphanFiles(tally.orphans.sum())
+                .orphanBytes(tally.orphanBytes.sum())
+                .removedFiles(tally.removed.sum())
+                .expiredTempFiles(tally.expired.sum())
+                .completedAreas(completed)
+                .sampleOrphans(tally.samples())
+                .build();
+    }
+
+    /**
+     * Processa a próxima fatia de pastas da área, a partir do checkpoint
+     * O modo relatório tem checkpoint próprio: um dry-run não faz a próxima coleta real pular a fatia relatada
+     *
+     * @return true se a área foi percorrida até o fim nesta execução
+     */
+    private boolean collectArea(Area area, Instant cutoff, Mode mode, Tally tally) {
+        if (!Files.isDirectory(area.root())) {
+            return true;
+        }
+
+        String checkpointName = JOB_NAME + (mode == Mode.DRY_RUN ? ":dry-run:" : ":") + area.name();
+        String lastKey = checkpointRepository.findById(checkpointName)
+                .map(JobCheckpoint::getLastKey)
+                .orElse(null);
+        TreeSet<String> slice = nextSlice(area, lastKey);
+
+        List<Future<?>> tasks = new ArrayList<>(slice.size());
+        for (String entry : slice) {
+            Path start = area.root().resolve(entry);
+            tasks.add(executor.submit(() -> {
+                walk(area, start, cutoff, mode, tally);
+                return null;
+            }));
+        }
+        if (!awaitWhileHoldingLock(area, tasks)) {
+            tasks.forEach(t -> t.cancel(true));
+            return false;
+        }
+
+        boolean finished = slice.size() < maxDirsPerRun;
+        JobCheckpoint checkpoint = checkpointRepository.findById(checkpointName)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(checkpointName).build());
+        checkpoint.setLastKey(finished ? null : slice.last());
+        if (finished) {
+            checkpoint.setLastCompletedAt(LocalDateTime.now());
+        }
+        checkpointRepository.save(checkpoint);
+        return finished;
+    }
+
+    /**
+     * Aguarda as tarefas da fatia prolongando a trava enquanto isso, para que outro nó não
+     * comece a mesma coleta quando a execução passa de lock-minutes
+     *
+     * @return false se a thread foi interrompida ou a trava foi perdida (o checkpoint não avança)
+     */
+    private boolean awaitWhileHoldingLock(Area area, List<Future<?>> tasks) {
+        long extendEveryMs = Math.max(1000L, lockAtMostFor.toMillis() / 3);
+        for (Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get(extendEveryMs, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    if (!lockService.extend(JOB_NAME, lockAtMostFor)) {
+                        log.warn("Trava da coleta de uploads perdida durante {}", area.name());
+                        return false;
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Erro ao percorrer {}: {}", area.root(), e.getCause().getMessage());
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Menores nomes de primeiro nível após o checkpoint, no máximo maxDirsPerRun (sem listar a área inteira em memória)
+     */
+    private TreeSet<String> nextSlice(Area area, String lastKey) {
+        TreeSet<String> slice = new TreeSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(area.root())) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (area.skippedDirs().contains(name) || (lastKey != null && name.compareTo(lastKey) <= 0)) {
+                    continue;
+                }
+                slice.add(name);
+                if (slice.size() > maxDirsPerRun) {
+                    slice.pollLast();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível listar " + area.root(), e);
+        }
+        return slice;
+    }
+
+    private void walk(Area area, Path start, Instant cutoff, Mode mode, Tally tally) throws IOException {
+        List<Candidate> batch = new ArrayList<>(batchSize);
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                tally.scanned.increment();
+                scannedCounter.increment();
+                // Arquivos recentes podem ainda não ter o registro commitado
+                if (attrs.lastModifiedTime().toInstant().isBefore(cutoff)) {
+                    batch.add(new Candidate(file, area.keyOf().apply(file), attrs.size()));
+                    if (batch.size() >= batchSize) {
+                        reconcile(area, batch, mode, tally);
+                        batch.clear();
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                log.warn("Não foi possível ler {}: {}", file, exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!batch.isEmpty()) {
+            reconcile(area, batch, mode, tally);
+        }
+    }
+
+    /**
+     * Confere um lote de arquivos com uma única consulta e trata os que não são referenciados
+     */
+    private void reconcile(Area area, List<Candidate> batch, Mode mode, Tally tally) {
+        List<Candidate> orphans = unreferenced(area, batch);
+        if (orphans.isEmpty()) {
+            return;
+        }
+        if (mode != Mode.DRY_RUN) {
+            // Nova conferência logo antes de remover, para estreitar a janela com gravações concorrentes
+            orphans = unreferenced(area, orphans);
+        }
+
+        for (Candidate orphan : orphans) {
+            tally.orphans.increment();
+            tally.orphanBytes.add(orphan.size());
+            orphanCounter.increment();
+            tally.sample(uploadsRoot.relativize(orphan.file()).toString());
+
+            if (mode != Mode.DRY_RUN && remove(area, orphan.file(), mode)) {
+                tally.removed.increment();
+                removedCounter.increment();
+            }
+        }
+    }
+
+    private List<Candidate> unreferenced(Area area, List<Candidate> candidates) {
+        Set<String> keys = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.key() != null) {
+                keys.add(candidate.key());
+            }
+        }
+        Set<String> existing = keys.isEmpty() ? Set.of() : new HashSet<>(area.existing().apply(keys));
+
+        List<Candidate> orphans = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.key() == null || !existing.contains(candidate.key())) {
+                orphans.add(candidate);
+            }
+        }
+        return orphans;
+    }
+
+    private boolean remove(Area area, Path file, Mode mode) {
+        try {
+            if (mode == Mode.DELETE) {
+                return Files.deleteIfExists(file);
+            }
+            Path target = quarantineRoot.resolve(area.name()).resolve(area.root().relativize(file).toString());
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // O prazo da quarentena conta a partir da remoção, não da gravação original
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o órfão {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Apaga arquivos mais antigos que o limite (temporários abandonados e quarentena vencida)
+     */
+    private void expire(Path dir, Instant cutoff, Mode mode, Tally tally) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && attrs.lastModifiedTime().toInstant().isBefore(cutoff)) {
+                        tally.expired.increment();
+                        if (mode != Mode.DRY_RUN) {
+                            try {
+                                Files.deleteIfExists(file);
+                            } catch (IOException e) {
+                                log.warn("Não foi possível remover {}: {}", file, e.getMessage());
+                            }
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Erro ao limpar {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Caminho público gravado no banco ("/uploads/...") de um arquivo do volume
+     */
+    private String storedPathOf(Path file) {
+        return "/uploads/" + uploadsRoot.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Nome do arquivo no BlobStore; nomes fora do formato não correspondem a nenhum registro
+     */
+    private String checksumOf(Path file) {
+        String name = file.getFileName().toString();
+        return CHECKSUM.matcher(name).matches() ? name : null;
+    }
+
+    /**
+     * Contadores da execução, compartilhados pelas tarefas paralelas
+     */
+    private static final class Tally {
+        final LongAdder scanned = new LongAdder();
+        final LongAdder orphans = new LongAdder();
+        final LongAdder orphanBytes = new LongAdder();
+        final LongAdder removed = new LongAdder();
+        final LongAdder expired = new LongAdder();
+        private final int sampleSize;
+        private final List<String> samples = new ArrayList<>();
+
+        Tally(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        synchronized void sample(String path) {
+            if (samples.size() < sampleSize) {
+                samples.add(path);
+            }
+        }
+
+        synchronized List<String> samples() {
+            return List.copyOf(samples);
+        }
+    }
+}
@@ -7,8 +7,10 @@ import com.vilaagro.api.dto.UserUpdateDTO;
 import com.vilaagro.api.dto.StatusUpdateDTO;
 import com.vilaagro.api.exception.EmailAlreadyExistsException;
 import com.vilaagro.api.exception.ResourceNotFoundException;
+import com.vilaagro.api.model.Document;
 import com.vilaagro.api.model.User;
 import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.repository.DocumentRepository;
 import com.vilaagro.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +34,11 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final ActiveMerchantCounter activeMerchantCounter;
+    private final DocumentRepository documentRepository;
+    private final FileStorageService fileStorageService;
 
     /**
      * Cria um novo usuário
@@ -64,6 +71,7 @@ public class UserService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        activeMerchantCounter.onTransition(false, ActiveMerchantCounter.isActiveMerchant(savedUser));
         return convertToResponseDTO(savedUser);
     }
 
@@ -106,6 +114,8 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
 
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
+
         // Verifica se o email já existe (apenas se foi alterado)
         if (updateDTO.getEmail() != null && !updateDTO.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmail(updateDTO.getEmail())) {
@@ -135,6 +145,8 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userDetailsService.evictUser(updatedUser.getId());
+        activeMerchantCounter.onTransition(wasActiveMerchant, ActiveMerchantCounter.isActiveMerchant(updatedUser));
         return convertToResponseDTO(updatedUser);
     }
 
@@ -145,10 +157,18 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
 
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
         user.setDocumentsStatus(statusUpdateDTO.getStatus());
         // Comentário e histórico podem ser implementados posteriormente
 
         User saved = userRepository.save(user);
+        userDetailsService.evictUser(saved.getId());
+        activeMerchantCounter.onTransition(wasActiveMerchant, ActiveMerchantCounter.isActiveMerchant(saved));
+
+        // Usuário reprovado perde todas as sessões abertas
+        if (saved.getDocumentsStatus() == AccountStatus.DISAPPROVED) {
+            refreshTokenService.revokeAllForUser(saved.getId());
+        }
         return convertToResponseDTO(saved);
     }
 
@@ -156,10 +176,19 @@ public class UserService {
      * Deleta um usuário
      */
     public void deleteUser(UUID id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Usuário", "id", id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
+
+        // Documentos do usuário: registros removidos junto, arquivos apagados após o commit
+        List<Document> documents = documentRepository.findByUserId(id);
+        documents.forEach(document -> fileStorageService.deleteAfterCommit(document.getFilePath()));
+        documentRepository.deleteAll(documents);
+
+        userRepository.delete(user);
+        userDetailsService.evictUser(id);
+        activeMerchantCounter.onTransition(wasActiveMerchant, false);
+        refreshTokenService.revokeAllForUser(id);
     }
 
     /**
@@ -171,6 +200,7 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", userId));
 
         // Atualiza status para inativo
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
         user.setDocumentsStatus(AccountStatus.INACTIVE);
         
         // Log da solicitação
@@ -182,6 +212,8 @@ public class UserService {
         }
         
         userRepository.save(user);
+        userDetailsService.evictUser(userId);
+        activeMerchantCounter.onTransition(wasActiveMerchant, false);
         
         // TODO: Implementar notificação para admin
         // TODO: Implementar registro de histórico
@@ -244,6 +276,7 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", currentUser.getId()));
 
         // RN-C.5.2: Atualiza o status
+        boolean wasActiveMerchant = ActiveMerchantCounter.isActiveMerchant(user);
         user.setDocumentsStatus(AccountStatus.REQUESTED_TERMINATION);
 
         // Remove o usuário do ponto de venda, se estiver alocado
@@ -255,6 +288,8 @@ public class UserService {
         // (Se houvesse um campo 'termination_reason' na tabela user, seria setado aqui)
 
         User updatedUser = userRepository.save(user);
+        userDetailsService.evictUser(updatedUser.getId());
+        activeMerchantCounter.onTransition(wasActiveMerchant, false);
         return convertToResponseDTO(updatedUser);
     }
 }
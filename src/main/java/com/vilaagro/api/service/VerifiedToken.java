@@ -0,0 +1,44 @@
+package com.vilaagro.api.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Resultado imutável da verificação de um token JWT
+ * Carrega as claims já validadas para evitar novos parses da mesma string
+ */
+@Value
+@Builder
+public class VerifiedToken {
+
+    String tokenId;
+    String familyId;
+    String subject;
+    String userId;
+    String userType;
+    String tokenType;
+    Instant expiration;
+
+    /**
+     * Verifica se o token é um Access Token
+     */
+    public boolean isAccessToken() {
+        return "ACCESS".equals(tokenType);
+    }
+
+    /**
+     * Verifica se o token é um Refresh Token
+     */
+    public boolean isRefreshToken() {
+        return "REFRESH".equals(tokenType);
+    }
+
+    /**
+     * Verifica se o token já expirou
+     */
+    public boolean isExpired() {
+        return expiration == null || !expiration.isAfter(Instant.now());
+    }
+}
@@ -9,6 +9,7 @@ DELETE FROM absence;
 DELETE FROM statement;
 DELETE FROM notifications;
 DELETE FROM course;
+DELETE FROM artist_banner_variant;
 DELETE FROM artist;
 DELETE FROM fairs;
 DELETE FROM sale_point;
@@ -36,14 +37,14 @@ INSERT INTO fairs (id, date, start_time, end_time, expected_merchants, notes, st
 VALUES (RANDOM_UUID(), '2025-12-06', '08:00', '14:00', 60, 'Feira de Dezembro', 'scheduled', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Artistas (sem banner, faça upload depois via API)
-INSERT INTO artist (id, name, genre, banner, created_at, updated_at)
-VALUES (RANDOM_UUID(), 'Banda Sertanejo Raiz', 'Sertanejo', NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO artist (id, name, genre, has_banner, created_at, updated_at)
+VALUES (RANDOM_UUID(), 'Banda Sertanejo Raiz', 'Sertanejo', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO artist (id, name, genre, banner, created_at, updated_at)
-VALUES (RANDOM_UUID(), 'Grupo de Forró', 'Forró', NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO artist (id, name, genre, has_banner, created_at, updated_at)
+VALUES (RANDOM_UUID(), 'Grupo de Forró', 'Forró', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO artist (id, name, genre, banner, created_at, updated_at)
-VALUES (RANDOM_UUID(), 'DJ Eletrônico', 'Eletrônica', NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO artist (id, name, genre, has_banner, created_at, updated_at)
+VALUES (RANDOM_UUID(), 'DJ Eletrônico', 'Eletrônica', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Atrações (precisa dos IDs das feiras e artistas, então faremos via subquery)
 INSERT INTO attractions (id, artist_id, fair_id, time_start, time_end)
@@ -0,0 +1,164 @@
+package com.vilaagro.api;
+
+import com.vilaagro.api.model.Absence;
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.AttendanceCompliance;
+import com.vilaagro.api.model.JustificationForAbsence;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.AbsenceRepository;
+import com.vilaagro.api.repository.AttendanceComplianceRepository;
+import com.vilaagro.api.repository.JustificationRepository;
+import com.vilaagro.api.repository.UserRepository;
+import com.vilaagro.api.service.AttendanceComplianceService;
+import com.vilaagro.api.service.AttendanceComplianceService.AbsenceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Garante que as atualizações incrementais do agregado de frequência chegam ao mesmo resultado do recálculo completo
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AttendanceComplianceTests {
+
+    @Autowired
+    private AttendanceComplianceService complianceService;
+
+    @Autowired
+    private AttendanceComplianceRepository complianceRepository;
+
+    @Autowired
+    private AbsenceRepository absenceRepository;
+
+    @Autowired
+    private JustificationRepository justificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final int year = LocalDate.now().getYear();
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .name("Comerciante Frequência")
+                .email("frequencia-" + UUID.randomUUID() + "@teste.com")
+                .password("x")
+                .type(UserType.PRODUTOR_RURAL)
+                .documentsStatus(AccountStatus.ACTIVE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        complianceRepository.deleteById(user.getId());
+        absenceRepository.deleteAll(absenceRepository.findByUserIdWithJustification(user.getId()));
+        userRepository.delete(user);
+    }
+
+    @Test
+    void incrementalAbsencesMatchRecompute() {
+        record(absence(LocalDate.of(year, 1, 5), null));
+        record(absence(LocalDate.of(year, 1, 12), null));
+        record(absence(LocalDate.of(year, 1, 19), true));
+        record(absence(LocalDate.of(year, 1, 26), null));
+        record(absence(LocalDate.of(year, 2, 2), null));
+
+        AttendanceCompliance incremental = complianceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(2L, incremental.getConsecutiveAbsences());
+        assertEquals(4L, incremental.getYearlyUnjustified());
+
+        assertSameCounters(incremental, complianceService.recompute(user.getId()));
+    }
+
+    @Test
+    void outOfOrderAbsenceFallsBackToRecompute() {
+        record(absence(LocalDate.of(year, 1, 19), null));
+        record(absence(LocalDate.of(year, 1, 5), null));
+        record(absence(LocalDate.of(year, 1, 12), null));
+
+        AttendanceCompliance incremental = complianceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(3L, incremental.getConsecutiveAbsences());
+
+        assertSameCounters(incremental, complianceService.recompute(user.getId()));
+    }
+
+    @Test
+    void justificationTransitionsMatchRecompute() {
+        Absence absence = absence(LocalDate.of(year, 1, 5), null);
+        record(absence);
+
+        // Justificativa enviada: não justificada -> pendente
+        AbsenceState before = AbsenceState.of(absence);
+        JustificationForAbsence justification = justificationRepository.save(JustificationForAbsence.builder()
+                .absence(absence)
+                .description("Consulta médica")
+                .build());
+        absence.setJustification(justification);
+        complianceService.recordTransition(absence, before);
+
+        AttendanceCompliance pending = complianceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1L, pending.getPendingJustifications());
+        assertEquals(0L, pending.getUnjustifiedAbsences());
+        assertSameCounters(pending, complianceService.recompute(user.getId()));
+
+        // Justificativa aprovada: pendente -> justificada (recalcula a sequência)
+        before = AbsenceState.of(absence);
+        justification.setIsApproved(true);
+        justificationRepository.save(justification);
+        absence.setIsAccepted(true);
+        absenceRepository.save(absence);
+        complianceService.recordTransition(absence, before);
+
+        AttendanceCompliance justified = complianceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1L, justified.getJustifiedAbsences());
+        assertEquals(0L, justified.getConsecutiveAbsences());
+        assertSameCounters(justified, complianceService.recompute(user.getId()));
+    }
+
+    @Test
+    void readingWithoutAggregateDoesNotWrite() {
+        absenceRepository.save(absence(LocalDate.of(year, 1, 5), null));
+
+        AttendanceCompliance computed = complianceService.getOrCompute(user.getId());
+
+        assertEquals(1L, computed.getTotalAbsences());
+        assertEquals(1L, computed.getConsecutiveAbsences());
+        assertFalse(complianceRepository.existsById(user.getId()));
+    }
+
+    private Absence absence(LocalDate date, Boolean accepted) {
+        return Absence.builder()
+                .user(user)
+                .date(date)
+                .isAccepted(accepted)
+                .build();
+    }
+
+    private void record(Absence absence) {
+        complianceService.recordNewAbsences(List.of(absenceRepository.save(absence)));
+    }
+
+    private void assertSameCounters(AttendanceCompliance expected, AttendanceCompliance actual) {
+        assertEquals(expected.getTotalAbsences(), actual.getTotalAbsences());
+        assertEquals(expected.getJustifiedAbsences(), actual.getJustifiedAbsences());
+        assertEquals(expected.getPendingJustifications(), actual.getPendingJustifications());
+        assertEquals(expected.getUnjustifiedAbsences(), actual.getUnjustifiedAbsences());
+        assertEquals(expected.getYearlyUnjustified(), actual.getYearlyUnjustified());
+        assertEquals(expected.getConsecutiveAbsences(), actual.getConsecutiveAbsences());
+        assertEquals(expected.getLastAbsenceDate(), actual.getLastAbsenceDate());
+    }
+}
@@ -0,0 +1,131 @@
+package com.vilaagro.api;
+
+import com.vilaagro.api.dto.AttractionResponseDTO;
+import com.vilaagro.api.model.Artist;
+import com.vilaagro.api.model.Attraction;
+import com.vilaagro.api.model.Fair;
+import com.vilaagro.api.model.FairStatus;
+import com.vilaagro.api.repository.ArtistRepository;
+import com.vilaagro.api.repository.AttractionRepository;
+import com.vilaagro.api.repository.FairRepository;
+import com.vilaagro.api.service.AttractionService;
+import com.vilaagro.api.service.FairService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garante que as listagens de atrações continuam em uma única consulta (sem N+1)
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.vilaagro.api.ThreadStatementCounter")
+@ActiveProfiles("test")
+class AttractionQueryCountTests {
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private FairService fairService;
+
+    @Autowired
+    private FairRepository fairRepository;
+
+    @Autowired
+    private ArtistRepository artistRepository;
+
+    @Autowired
+    private AttractionRepository attractionRepository;
+
+    private final List<Fair> fairs = new ArrayList<>();
+    private final List<Artist> artists = new ArrayList<>();
+    private final List<Attraction> attractions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            fairs.add(fairRepository.save(Fair.builder()
+                    .date(LocalDate.now().plusDays(i + 1))
+                    .startTime("08:00")
+                    .endTime("13:00")
+                    .expectedMerchants(0)
+                    .status(FairStatus.scheduled)
+                    .attractions(new ArrayList<>())
+                    .build()));
+            artists.add(artistRepository.save(Artist.builder()
+                    .name("Artista " + i)
+                    .genre("Forró")
+                    .hasBanner(true)
+                    .build()));
+        }
+
+        for (Fair fair : fairs) {
+            for (int i = 0; i < artists.size(); i++) {
+                Attraction attraction = new Attraction();
+                attraction.setFair(fair);
+                attraction.setArtist(artists.get(i));
+                attraction.setTimeStart(LocalTime.of(9 + i, 0));
+                attraction.setTimeEnd(LocalTime.of(10 + i, 0));
+                attractions.add(attractionRepository.save(attraction));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        attractionRepository.deleteAll(attractions);
+        artistRepository.deleteAll(artists);
+        fairRepository.deleteAll(fairs);
+    }
+
+    @Test
+    void upcomingAttractionsUseSingleQuery() {
+        ThreadStatementCounter.reset();
+        List<AttractionResponseDTO> result = attractionService.getUpcomingAttractions();
+
+        assertEquals(1, ThreadStatementCounter.count());
+        assertContainsAll(result);
+    }
+
+    @Test
+    void allAttractionsUseSingleQuery() {
+        ThreadStatementCounter.reset();
+        List<AttractionResponseDTO> result = attractionService.getAllAttractions();
+
+        assertEquals(1, ThreadStatementCounter.count());
+        assertContainsAll(result);
+    }
+
+    @Test
+    void attractionsByFairUseOneQueryPlusExistenceCheck() {
+        ThreadStatementCounter.reset();
+        List<AttractionResponseDTO> result = fairService.getAttractionsByFairId(fairs.get(0).getId());
+
+        assertEquals(2, ThreadStatementCounter.count());
+        assertEquals(artists.size(), result.size());
+    }
+
+    private void assertContainsAll(List<AttractionResponseDTO> result) {
+        List<UUID> ids = result.stream().map(AttractionResponseDTO::getId).toList();
+        for (Attraction attraction : attractions) {
+            assertTrue(ids.contains(attraction.getId()));
+        }
+
+        // O indicador de banner vem da projeção, sem carregar os bytes
+        List<UUID> artistIds = artists.stream().map(Artist::getId).toList();
+        result.stream()
+                .filter(dto -> artistIds.contains(dto.getArtist().getId()))
+                .forEach(dto -> assertTrue(dto.getArtist().isHasBanner()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.vilaagro.api;
+
+import com.vilaagro.api.exception.GlobalExceptionHandler;
+import com.vilaagro.api.exception.TooManyRequestsException;
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.Fair;
+import com.vilaagro.api.model.FairCheckIn;
+import com.vilaagro.api.model.FairStatus;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.FairCheckInRepository;
+import com.vilaagro.api.repository.FairRepository;
+import com.vilaagro.api.repository.UserRepository;
+import com.vilaagro.api.service.AttendanceService;
+import com.vilaagro.api.service.CheckInWriteBehindBuffer;
+import com.vilaagro.api.service.FairCheckInService;
+import com.vilaagro.api.service.FairCheckInService.CheckInResult;
+import com.vilaagro.api.service.PublicResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check-in na feira: idempotência, recusa com fila cheia e encerramento após gravar a fila
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FairCheckInTests {
+
+    @Autowired
+    private FairCheckInService checkInService;
+
+    @Autowired
+    private CheckInWriteBehindBuffer buffer;
+
+    @Autowired
+    private FairCheckInRepository checkInRepository;
+
+    @Autowired
+    private FairRepository fairRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private PublicResponseCache publicResponseCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Fair fair;
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        fair = fairRepository.save(Fair.builder()
+                .date(LocalDate.now())
+                .startTime("08:00")
+                .endTime("13:00")
+                .expectedMerchants(0)
+                .status(FairStatus.confirmed)
+                .build());
+        first = userRepository.save(merchant());
+        second = userRepository.save(merchant());
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.flush();
+        checkInRepository.deleteAll(checkInRepository.findAll().stream()
+                .filter(checkIn -> checkIn.getFairId().equals(fair.getId()))
+                .toList());
+        fairRepository.delete(fair);
+        userRepository.delete(first);
+        userRepository.delete(second);
+    }
+
+    @Test
+    void repeatedCheckInIsIdempotent() {
+        assertEquals(CheckInResult.ACCEPTED, checkInService.checkIn(fair.getId(), first));
+        assertEquals(CheckInResult.ALREADY_CHECKED_IN, checkInService.checkIn(fair.getId(), first));
+
+        // Mesmo par enfileirado de novo (ex.: por outra instância) antes e depois da gravação
+        buffer.offer(checkIn(first));
+        buffer.flush();
+        buffer.offer(checkIn(first));
+        buffer.flush();
+
+        assertEquals(1L, checkInRepository.countByFairId(fair.getId()));
+    }
+
+    @Test
+    void fullQueueRejectsWithTooManyRequests() {
+        // Fila de capacidade 1 sem gravação em segundo plano: o segundo check-in não cabe
+        CheckInWriteBehindBuffer tinyBuffer = new CheckInWriteBehindBuffer(
+                checkInRepository, transactionManager, new SimpleMeterRegistry(), 1, 200, 500, false);
+        FairCheckInService service = new FairCheckInService(fairRepository, checkInRepository, userRepository,
+                attendanceService, tinyBuffer, publicResponseCache, new SimpleMeterRegistry(), 2);
+
+        assertEquals(CheckInResult.ACCEPTED, service.checkIn(fair.getId(), first));
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> service.checkIn(fair.getId(), second));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                new GlobalExceptionHandler().handleTooManyRequestsException(rejected).getStatusCode());
+
+        // A recusa não marca o check-in: depois de esvaziar a fila o comerciante consegue tentar de novo
+        tinyBuffer.flush();
+        assertEquals(CheckInResult.ACCEPTED, service.checkIn(fair.getId(), second));
+        tinyBuffer.flush();
+
+        assertEquals(2L, checkInRepository.countByFairId(fair.getId()));
+    }
+
+    @Test
+    void closeCountsQueuedCheckInsAndKeepsThemOnRollback() {
+        checkInService.checkIn(fair.getId(), first);
+
+        // Encerra numa transação desfeita ao final: as faltas e o status voltam atrás, os check-ins não
+        Map<String, Integer> summary = new TransactionTemplate(transactionManager).execute(status -> {
+            Map<String, Integer> result = checkInService.closeFair(fair.getId());
+            status.setRollbackOnly();
+            return result;
+        });
+
+        assertEquals(1, summary.get("checkedIn"));
+        assertEquals(1L, checkInRepository.countByFairId(fair.getId()));
+        assertEquals(FairStatus.confirmed, fairRepository.findById(fair.getId()).orElseThrow().getStatus());
+        assertEquals(CheckInResult.ALREADY_CHECKED_IN, checkInService.checkIn(fair.getId(), first));
+
+        // Encerramento desfeito: a feira volta a aceitar check-ins
+        assertEquals(CheckInResult.ACCEPTED, checkInService.checkIn(fair.getId(), second));
+    }
+
+    @Test
+    void checkInIsRejectedOnceFairIsClosing() {
+        buffer.closeFair(fair.getId());
+        try {
+            assertThrows(IllegalArgumentException.class, () -> checkInService.checkIn(fair.getId(), first));
+        } finally {
+            buffer.reopenFair(fair.getId());
+        }
+
+        // A recusa não deixa o comerciante marcado como presente
+        assertEquals(CheckInResult.ACCEPTED, checkInService.checkIn(fair.getId(), first));
+    }
+
+    private User merchant() {
+        return User.builder()
+                .name("Comerciante Check-in")
+                .email("checkin-" + UUID.randomUUID() + "@teste.com")
+                .password("x")
+                .type(UserType.PRODUTOR_RURAL)
+                .documentsStatus(AccountStatus.ACTIVE)
+                .build();
+    }
+
+    private FairCheckIn checkIn(User user) {
+        return FairCheckIn.builder()
+                .fairId(fair.getId())
+                .userId(user.getId())
+                .checkedInAt(Instant.now())
+                .build();
+    }
+}
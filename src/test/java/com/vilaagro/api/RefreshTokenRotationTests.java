@@ -0,0 +1,114 @@
+package com.vilaagro.api;
+
+import com.vilaagro.api.model.AccountStatus;
+import com.vilaagro.api.model.RefreshToken;
+import com.vilaagro.api.model.User;
+import com.vilaagro.api.model.UserType;
+import com.vilaagro.api.repository.RefreshTokenRepository;
+import com.vilaagro.api.service.CustomUserDetailsService.CustomUserPrincipal;
+import com.vilaagro.api.service.JwtService;
+import com.vilaagro.api.service.RefreshTokenService;
+import com.vilaagro.api.service.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Troca de refresh tokens: uso único, tolerância a reenvio imediato, detecção de reutilização e revogação
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private CustomUserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        principal = new CustomUserPrincipal(User.builder()
+                .id(UUID.randomUUID())
+                .name("Comerciante Teste")
+                .email("refresh-" + UUID.randomUUID() + "@teste.com")
+                .password("x")
+                .type(UserType.PRODUTOR_RURAL)
+                .documentsStatus(AccountStatus.ACTIVE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenService.revokeAllForUser(principal.getUser().getId());
+    }
+
+    @Test
+    void rotationIssuesNewTokenInSameFamily() {
+        VerifiedToken first = jwtService.verify(refreshTokenService.issue(principal));
+
+        VerifiedToken second = jwtService.verify(refreshTokenService.rotate(first, principal));
+
+        assertNotEquals(first.getTokenId(), second.getTokenId());
+        assertEquals(first.getFamilyId(), second.getFamilyId());
+        assertEquals(second.getTokenId(), refreshTokenRepository.findById(first.getTokenId()).orElseThrow().getReplacedBy());
+    }
+
+    @Test
+    void repeatedPresentationWithinGraceReturnsSameSuccessor() {
+        VerifiedToken first = jwtService.verify(refreshTokenService.issue(principal));
+
+        VerifiedToken fromTabA = jwtService.verify(refreshTokenService.rotate(first, principal));
+        VerifiedToken fromTabB = jwtService.verify(refreshTokenService.rotate(first, principal));
+
+        assertEquals(fromTabA.getTokenId(), fromTabB.getTokenId());
+        assertFalse(refreshTokenRepository.findById(fromTabA.getTokenId()).orElseThrow().getRevoked());
+
+        // A sessão continua utilizável
+        VerifiedToken next = jwtService.verify(refreshTokenService.rotate(fromTabB, principal));
+        assertNotEquals(fromTabB.getTokenId(), next.getTokenId());
+    }
+
+    @Test
+    void reuseAfterGraceRevokesWholeFamily() {
+        VerifiedToken first = jwtService.verify(refreshTokenService.issue(principal));
+        VerifiedToken second = jwtService.verify(refreshTokenService.rotate(first, principal));
+
+        // Simula a troca feita há bastante tempo
+        RefreshToken used = refreshTokenRepository.findById(first.getTokenId()).orElseThrow();
+        used.setUsedAt(Instant.now().minusSeconds(3600));
+        refreshTokenRepository.save(used);
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(first, principal));
+
+        assertTrue(refreshTokenRepository.findById(second.getTokenId()).orElseThrow().getRevoked());
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(second, principal));
+    }
+
+    @Test
+    void revokedFamilyCannotRotate() {
+        VerifiedToken token = jwtService.verify(refreshTokenService.issue(principal));
+
+        refreshTokenService.revokeFamily(UUID.fromString(token.getFamilyId()));
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(token, principal));
+    }
+}